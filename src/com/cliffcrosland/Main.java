@@ -1,7 +1,11 @@
 package com.cliffcrosland;
 
+import com.cliffcrosland.boruvka.test.BoruvkaMinSpanningTreeTests;
+import com.cliffcrosland.kdtree.test.EuclideanMinSpanningTreeTests;
 import com.cliffcrosland.kruskal.test.KruskalMinSpanningTreeTests;
+import com.cliffcrosland.onlinemst.test.OnlineMinSpanningTreeTests;
 import com.cliffcrosland.prim.test.PrimMinSpanningTreeTests;
+import com.cliffcrosland.unionfind.test.UnionFindTests;
 
 public class Main {
     public static void main(String[] args) {
@@ -14,5 +18,20 @@ public class Main {
         for (int i = 0; i < 10; i++) {
             KruskalMinSpanningTreeTests.testRandomMinSpanningTree();
         }
+        KruskalMinSpanningTreeTests.testLargeMinSpanningTree();
+        KruskalMinSpanningTreeTests.testFilterKruskalWithEqualMinWeights();
+        KruskalMinSpanningTreeTests.testExternalMinSpanningTree();
+
+        BoruvkaMinSpanningTreeTests.runTestCasesFromFile();
+        for (int i = 0; i < 10; i++) {
+            BoruvkaMinSpanningTreeTests.testRandomMinSpanningTree();
+        }
+        BoruvkaMinSpanningTreeTests.testLargeMinSpanningTree();
+
+        EuclideanMinSpanningTreeTests.stressTest();
+
+        OnlineMinSpanningTreeTests.stressTest();
+
+        UnionFindTests.stressTest();
     }
 }
@@ -0,0 +1,129 @@
+package com.cliffcrosland.boruvka;
+
+import com.cliffcrosland.graph.CompactGraph;
+import com.cliffcrosland.graph.Graph;
+import com.cliffcrosland.graph.GraphEdge;
+import com.cliffcrosland.unionfind.ConcurrentUnionFind;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/*
+ * Boruvka's algorithm, the oldest min spanning tree algorithm (1926), and the easiest one to run in parallel.
+ *
+ * Start with every node in a component of its own. In each round, every component picks the lightest edge leaving it,
+ * and all of those edges are added to the tree at once, merging components. Every component merges with at least one
+ * other, so the number of components at least halves each round, and there are at most log2(V) rounds.
+ *
+ * Why is the lightest edge leaving a component always safe to add? Cut the graph into that component and everything
+ * else. Any spanning tree must cross the cut, and swapping whatever edge it crosses with for the lightest one never
+ * makes the tree heavier (this is the "cut property" that Prim's and Kruskal's algorithms rely on too).
+ *
+ * Within a round, nothing depends on anything else: each edge can look up its two endpoints' components and offer
+ * itself to both, and each chosen edge can merge its two components, all in parallel. Components are tracked with a
+ * union-find forest whose links are updated with compare-and-set, so merges never block each other.
+ *
+ * Ties need care. If components A, B, and C pick edges A-B, B-C, and C-A, all of the same weight, adding all three
+ * makes a cycle. So edges are compared by weight, then by their endpoints, which gives every edge a distinct rank, and
+ * then the chosen edges can never form a cycle longer than two components picking the same edge. The union-find
+ * forest catches that case, since the second merge finds both ends already in one component.
+ *
+ * Edges are treated as undirected: edge u -> v leaves both u's component and v's component.
+ */
+public class BoruvkaMinSpanningTree {
+
+    // Same result as `KruskalMinSpanningTree.findMinSpanningTree`, computed on the common fork-join pool.
+    public static Set<GraphEdge> findMinSpanningTree(Graph graph) {
+        CompactGraph compactGraph = CompactGraph.fromGraph(graph);
+        return new HashSet<>(compactGraph.toGraphEdges(findMinSpanningTree(compactGraph)));
+    }
+
+    // Boruvka's algorithm on the compact (CSR) form of a graph, on the common fork-join pool. Returns the ids of the
+    // edges in the min spanning tree (or forest, if the graph is not connected).
+    public static int[] findMinSpanningTree(CompactGraph graph) {
+        return findMinSpanningTree(graph, ForkJoinPool.commonPool());
+    }
+
+    // Same as above, running on the threads of `pool`. O(E log V) work in total, spread over the pool's threads.
+    public static int[] findMinSpanningTree(final CompactGraph graph, ForkJoinPool pool) {
+        final int[] sources = new int[graph.numEdges];
+        for (int node = 0; node < graph.numNodes; node++) {
+            Arrays.fill(sources, graph.offsets[node], graph.offsets[node + 1], node);
+        }
+        final ConcurrentUnionFind sets = new ConcurrentUnionFind(graph.numNodes);
+        // The lightest edge leaving each component, indexed by the component's root, or -1.
+        final AtomicIntegerArray lightestEdges = new AtomicIntegerArray(graph.numNodes);
+        final int[] minSpanningTree = new int[Math.max(graph.numNodes - 1, 0)];
+        final AtomicInteger numTreeEdges = new AtomicInteger();
+        while (true) {
+            for (int node = 0; node < graph.numNodes; node++) {
+                lightestEdges.set(node, -1);
+            }
+            // Every edge offers itself to the components on both of its ends.
+            parallelFor(pool, graph.numEdges, new IntConsumer() {
+                @Override
+                public void accept(int edge) {
+                    int fromRoot = sets.find(sources[edge]);
+                    int toRoot = sets.find(graph.targets[edge]);
+                    if (fromRoot == toRoot) return;
+                    offerEdge(graph, sources, lightestEdges, fromRoot, edge);
+                    offerEdge(graph, sources, lightestEdges, toRoot, edge);
+                }
+            });
+            // Every component that found an edge merges across it.
+            final int numTreeEdgesBefore = numTreeEdges.get();
+            parallelFor(pool, graph.numNodes, new IntConsumer() {
+                @Override
+                public void accept(int root) {
+                    int edge = lightestEdges.get(root);
+                    if (edge == -1) return;
+                    if (sets.union(sources[edge], graph.targets[edge])) {
+                        minSpanningTree[numTreeEdges.getAndIncrement()] = edge;
+                    }
+                }
+            });
+            if (numTreeEdges.get() == numTreeEdgesBefore) break; // every component is already a whole tree
+        }
+        return Arrays.copyOf(minSpanningTree, numTreeEdges.get());
+    }
+
+    // Make `edge` the lightest edge leaving the component rooted at `root`, unless that component already has a
+    // lighter one.
+    private static void offerEdge(CompactGraph graph, int[] sources, AtomicIntegerArray lightestEdges, int root,
+                                  int edge) {
+        while (true) {
+            int current = lightestEdges.get(root);
+            if (current != -1 && !isLighter(graph, sources, edge, current)) return;
+            if (lightestEdges.compareAndSet(root, current, edge)) return;
+        }
+    }
+
+    // Edges are ranked by weight, then by their lower endpoint, then by their higher endpoint, so the rank of an edge
+    // does not depend on which way it points. Only copies of the same edge tie.
+    private static boolean isLighter(CompactGraph graph, int[] sources, int a, int b) {
+        if (graph.weights[a] != graph.weights[b]) {
+            return graph.weights[a] < graph.weights[b];
+        }
+        int lowA = Math.min(sources[a], graph.targets[a]);
+        int lowB = Math.min(sources[b], graph.targets[b]);
+        if (lowA != lowB) {
+            return lowA < lowB;
+        }
+        return Math.max(sources[a], graph.targets[a]) < Math.max(sources[b], graph.targets[b]);
+    }
+
+    private static void parallelFor(ForkJoinPool pool, final int n, final IntConsumer body) {
+        pool.submit(new Runnable() {
+            @Override
+            public void run() {
+                IntStream.range(0, n).parallel().forEach(body);
+            }
+        }).join();
+    }
+}
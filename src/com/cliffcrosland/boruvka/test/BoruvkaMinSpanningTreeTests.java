@@ -0,0 +1,103 @@
+package com.cliffcrosland.boruvka.test;
+
+import com.cliffcrosland.boruvka.BoruvkaMinSpanningTree;
+import com.cliffcrosland.graph.CompactGraph;
+import com.cliffcrosland.graph.Graph;
+import com.cliffcrosland.graph.GraphEdge;
+import com.cliffcrosland.graph.test.GraphTestUtils;
+import com.cliffcrosland.kruskal.KruskalMinSpanningTree;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+public class BoruvkaMinSpanningTreeTests {
+    private static final boolean DEBUG = true;
+
+    public static void runTestCasesFromFile() {
+        String path = "./src/com/cliffcrosland/kruskal/test/kruskal-test-cases.txt";
+        System.out.println("Reading test cases from file: '" + path + "'...");
+        List<GraphTestUtils.GraphTestCase> testCases = GraphTestUtils.readTestCasesFromFile(path);
+        System.out.println("Found " + testCases.size() + " test cases. Running...");
+        for (GraphTestUtils.GraphTestCase testCase : testCases) {
+            Set<GraphEdge> minSpanningTree = BoruvkaMinSpanningTree.findMinSpanningTree(testCase.graph);
+            if (GraphTestUtils.treeCost(minSpanningTree) - GraphTestUtils.treeCost(testCase.solution) > 1e-4) {
+                println("Test case failed!");
+                println("Graph:");
+                printTree(testCase.graph.edges);
+                println("Boruvka min span tree:");
+                println("Cost: " + GraphTestUtils.treeCost(minSpanningTree));
+                printTree(minSpanningTree);
+                println("Expected solution:");
+                println("Cost: " + GraphTestUtils.treeCost(testCase.solution));
+                printTree(testCase.solution);
+                throw new RuntimeException("Test case failed!");
+            }
+        }
+        System.out.println("DONE. All tests successful!");
+    }
+
+    public static void testRandomMinSpanningTree() {
+        int numNodes = 6;
+        int maxNumEdgesPerNode = 3;
+        double maxEdgeValue = 100.0;
+        Graph graph = GraphTestUtils.createRandomUndirectedConnectedGraph(numNodes, maxNumEdgesPerNode, maxEdgeValue);
+
+        println("# Boruvka min spanning tree #");
+        Set<GraphEdge> minSpanningTree = BoruvkaMinSpanningTree.findMinSpanningTree(graph);
+        println("Cost: " + GraphTestUtils.treeCost(minSpanningTree));
+        printTree(minSpanningTree);
+
+        println("# Brute force min spanning tree #");
+        Set<GraphEdge> bruteForceMinSpanningTree = GraphTestUtils.bruteForceFindMinSpanningTree(graph);
+        println("Cost: " + GraphTestUtils.treeCost(bruteForceMinSpanningTree));
+        printTree(bruteForceMinSpanningTree);
+        println("");
+
+        if (GraphTestUtils.treeCost(minSpanningTree) - GraphTestUtils.treeCost(bruteForceMinSpanningTree) > 1e-4) {
+            throw new RuntimeException("Boruvka min spanning tree cost is greater than brute force spanning tree cost");
+        }
+    }
+
+    // Compare against Kruskal's algorithm on larger graphs, with several threads, including graphs with many tied
+    // edge weights.
+    public static void testLargeMinSpanningTree() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int maxEdgeValue : new int[] { 3, 1000000 }) {
+            Graph graph = GraphTestUtils.createRandomUndirectedConnectedGraph(2000, 4, maxEdgeValue);
+            for (GraphEdge edge : graph.edges) {
+                edge.value = Math.floor(edge.value);
+            }
+            CompactGraph compactGraph = CompactGraph.fromGraph(graph);
+            Set<GraphEdge> minSpanningTree = new HashSet<>(
+                    compactGraph.toGraphEdges(BoruvkaMinSpanningTree.findMinSpanningTree(compactGraph, pool)));
+            Set<GraphEdge> kruskalMinSpanningTree = KruskalMinSpanningTree.findMinSpanningTree(graph);
+            if (minSpanningTree.size() != graph.nodes.size() - 1) {
+                throw new RuntimeException("Boruvka min spanning tree has the wrong number of edges");
+            }
+            if (Math.abs(GraphTestUtils.treeCost(minSpanningTree) - GraphTestUtils.treeCost(kruskalMinSpanningTree)) > 1e-4) {
+                throw new RuntimeException("Boruvka min spanning tree cost differs from Kruskal min spanning tree cost");
+            }
+        }
+        pool.shutdown();
+    }
+
+    public static void println(Object o) {
+        if (!DEBUG) return;
+        System.out.println(o);
+    }
+
+    public static void print(Object o) {
+        if (!DEBUG) return;
+        System.out.print(o);
+    }
+
+    public static void printTree(Set<GraphEdge> tree) {
+        for (GraphEdge edge : tree) {
+            print("(" + edge.from.name + " <-> " + edge.to.name + ", cost: " + edge.value + ") ");
+        }
+        println("");
+    }
+
+}
@@ -1,6 +1,6 @@
 package com.cliffcrosland.boundedpriorityqueue;
 
-import com.cliffcrosland.minmaxheap.MinMaxHeap;
+import com.cliffcrosland.minmaxheap.DoubleMinMaxHeap;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -8,54 +8,54 @@ import java.util.List;
 /*
  * Priority queue that will not grow beyond a certain size. Will eject the item with max priority if the queue grows
  * beyond the max-size. O(1) lookup for min and max. O(log n) removing min or max. Backing data structure is a min-max
- * heap.
+ * heap keyed directly by the double priorities, so adding an item allocates nothing.
  */
 public class BoundedPriorityQueue<T> {
 
     private int maxSize;
-    private MinMaxHeap<PriorityQueueNode<T>> heap;
+    private DoubleMinMaxHeap<T> heap;
 
     public BoundedPriorityQueue(int maxSize) {
         this.maxSize = maxSize;
-        this.heap = new MinMaxHeap<PriorityQueueNode<T>>();
+        this.heap = new DoubleMinMaxHeap<T>(maxSize < 1024 ? maxSize + 1 : 1024);
     }
 
     // O(1) lookup min priority
     public double peekMinPriority() {
-        return heap.peekMin().priority;
+        return heap.peekMinKey();
     }
 
     // O(1) lookup max priority
     public double peekMaxPriority() {
-        return heap.peekMax().priority;
+        return heap.peekMaxKey();
     }
 
     // O(1) lookup min value
     public T peekMinValue() {
-        return heap.peekMin().value;
+        return heap.peekMin();
     }
 
     // O(1) lookup max value
     public T peekMaxValue() {
-        return heap.peekMax().value;
+        return heap.peekMax();
     }
 
     // O(log n) pop min value
     public T popMinValue() {
-        return heap.popMin().value;
+        return heap.popMin();
     }
 
     // O(log n) pop max value
     public T popMaxValue() {
-        return heap.popMax().value;
+        return heap.popMax();
     }
 
     // O(log n) - Add item. If the priority queue has exceeded its bounds, pop the maximum, and return the value stored
     // there.
     public T add(T value, double priority) {
-        heap.add(new PriorityQueueNode<T>(value, priority));
+        heap.add(priority, value);
         if (heap.size() > maxSize) {
-            return heap.popMax().value;
+            return heap.popMax();
         }
         return null;
     }
@@ -80,40 +80,37 @@ public class BoundedPriorityQueue<T> {
         return heap.size() == maxSize;
     }
 
+    // O(k log k), where k is the size of `other` - Add every item in `other` to this queue, keeping only the `maxSize`
+    // items with the smallest priorities across both, and leave `other` empty. Items come out of `other` smallest
+    // first, so once this queue is full and `other`'s next item has a priority no smaller than this queue's max, no
+    // later item can make the cut either, and we stop there.
+    public void merge(BoundedPriorityQueue<T> other) {
+        if (other == this) return;
+        while (!other.isEmpty()) {
+            if (isFull() && (isEmpty() || other.peekMinPriority() >= peekMaxPriority())) {
+                other.heap = new DoubleMinMaxHeap<T>(0);
+                break;
+            }
+            double priority = other.peekMinPriority();
+            add(other.popMinValue(), priority);
+        }
+    }
+
     // O(n log n) - Create a list of all of the items in the priority queue, ordered by priority.
+    @SuppressWarnings("unchecked")
     public List<T> toListOrderedByPriority() {
-        List<PriorityQueueNode<T>> nodes = new ArrayList<PriorityQueueNode<T>>(heap.size());
-        List<T> ret = new ArrayList<T>(heap.size());
+        int size = heap.size();
+        double[] priorities = new double[size];
+        T[] values = (T[]) new Object[size];
+        List<T> ret = new ArrayList<T>(size);
         // O(n log n) to pop min `n` times.
-        while (heap.size() > 0) {
-            PriorityQueueNode<T> node = heap.popMin();
-            nodes.add(node);
-            ret.add(node.value);
+        for (int i = 0; i < size; i++) {
+            priorities[i] = heap.peekMinKey();
+            values[i] = heap.popMin();
+            ret.add(values[i]);
         }
-        // O(n) to rebuild a min-max heap from the raw list of nodes
-        heap = new MinMaxHeap<PriorityQueueNode<T>>(nodes);
+        // O(n) to rebuild a min-max heap from the raw arrays
+        heap = new DoubleMinMaxHeap<T>(priorities, values, size);
         return ret;
     }
-
-    private class PriorityQueueNode<T> implements Comparable {
-        public T value;
-        public double priority;
-
-        public PriorityQueueNode(T value, double priority) {
-            this.value = value;
-            this.priority = priority;
-        }
-
-        @Override
-        public int compareTo(Object o) {
-            PriorityQueueNode<T> other = (PriorityQueueNode<T>)o;
-            if (this.priority < other.priority) {
-                return -1;
-            } else if (this.priority > other.priority) {
-                return 1;
-            } else {
-                return 0;
-            }
-        }
-    }
 }
@@ -0,0 +1,103 @@
+package com.cliffcrosland.boundedpriorityqueue;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/*
+ * A `Collector` that keeps the k items with the smallest priorities from a stream, in order, e.g.:
+ *
+ *     List<Point> nearest = points.parallelStream().collect(TopKCollector.smallest(10, distanceToTarget));
+ *
+ * Each piece of a parallel stream gets its own `BoundedPriorityQueue` of size k, so threads never share anything while
+ * scanning. When two pieces are joined, their queues are merged with `BoundedPriorityQueue.merge`, which takes
+ * O(k log k) however long the pieces were. The whole collection is O(n log k) work, split evenly across cores, plus
+ * O(k log k) per merge.
+ */
+public class TopKCollector<T> implements Collector<T, BoundedPriorityQueue<T>, List<T>> {
+    private final int k;
+    private final ToDoubleFunction<? super T> priority;
+
+    private TopKCollector(int k, ToDoubleFunction<? super T> priority) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must be non-negative.");
+        }
+        this.k = k;
+        this.priority = priority;
+    }
+
+    // Collects the k items with the smallest priorities, smallest first.
+    public static <T> TopKCollector<T> smallest(int k, ToDoubleFunction<? super T> priority) {
+        return new TopKCollector<T>(k, priority);
+    }
+
+    // Collects the k items with the largest priorities, largest first.
+    public static <T> TopKCollector<T> largest(int k, final ToDoubleFunction<? super T> priority) {
+        return new TopKCollector<T>(k, new ToDoubleFunction<T>() {
+            @Override
+            public double applyAsDouble(T item) {
+                return -priority.applyAsDouble(item);
+            }
+        });
+    }
+
+    @Override
+    public Supplier<BoundedPriorityQueue<T>> supplier() {
+        return new Supplier<BoundedPriorityQueue<T>>() {
+            @Override
+            public BoundedPriorityQueue<T> get() {
+                return new BoundedPriorityQueue<T>(k);
+            }
+        };
+    }
+
+    @Override
+    public BiConsumer<BoundedPriorityQueue<T>, T> accumulator() {
+        return new BiConsumer<BoundedPriorityQueue<T>, T>() {
+            @Override
+            public void accept(BoundedPriorityQueue<T> queue, T item) {
+                double itemPriority = priority.applyAsDouble(item);
+                // Skip the heap entirely for items that could not make the cut, which is most of them on a long stream.
+                if (queue.isFull() && (queue.isEmpty() || itemPriority >= queue.peekMaxPriority())) return;
+                queue.add(item, itemPriority);
+            }
+        };
+    }
+
+    @Override
+    public BinaryOperator<BoundedPriorityQueue<T>> combiner() {
+        return new BinaryOperator<BoundedPriorityQueue<T>>() {
+            @Override
+            public BoundedPriorityQueue<T> apply(BoundedPriorityQueue<T> a, BoundedPriorityQueue<T> b) {
+                if (a.size() < b.size()) {
+                    b.merge(a);
+                    return b;
+                }
+                a.merge(b);
+                return a;
+            }
+        };
+    }
+
+    @Override
+    public Function<BoundedPriorityQueue<T>, List<T>> finisher() {
+        return new Function<BoundedPriorityQueue<T>, List<T>>() {
+            @Override
+            public List<T> apply(BoundedPriorityQueue<T> queue) {
+                return queue.toListOrderedByPriority();
+            }
+        };
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.unmodifiableSet(EnumSet.of(Characteristics.UNORDERED));
+    }
+}
@@ -0,0 +1,74 @@
+package com.cliffcrosland.boundedpriorityqueue.test;
+
+import com.cliffcrosland.boundedpriorityqueue.BoundedPriorityQueue;
+import com.cliffcrosland.boundedpriorityqueue.TopKCollector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+public class TopKCollectorTests {
+
+    private static final ToDoubleFunction<Double> IDENTITY = new ToDoubleFunction<Double>() {
+        @Override
+        public double applyAsDouble(Double value) {
+            return value;
+        }
+    };
+
+    public static void stressTest() {
+        for (int i = 0; i < 10; i++) {
+            testMerge(100, 10);
+            testMerge(5, 10);
+        }
+        testParallelTopK(1000000, 100);
+        testParallelTopK(50, 100);
+        testParallelTopK(1000, 0);
+        System.out.println("DONE. All tests successful.");
+    }
+
+    private static void testMerge(int numItems, int k) {
+        BoundedPriorityQueue<Double> a = new BoundedPriorityQueue<Double>(k);
+        BoundedPriorityQueue<Double> b = new BoundedPriorityQueue<Double>(k);
+        List<Double> all = new ArrayList<Double>();
+        for (int i = 0; i < numItems; i++) {
+            double value = (int) (Math.random() * 50);
+            (Math.random() < 0.5 ? a : b).add(value, value);
+            all.add(value);
+        }
+        a.merge(b);
+        if (!b.isEmpty()) {
+            throw new RuntimeException("Merged queue should be empty.");
+        }
+        assertSmallest(all, a.toListOrderedByPriority(), k);
+    }
+
+    private static void testParallelTopK(int numItems, int k) {
+        List<Double> all = new ArrayList<Double>(numItems);
+        for (int i = 0; i < numItems; i++) {
+            all.add(Math.random());
+        }
+        assertSmallest(all, all.parallelStream().collect(TopKCollector.smallest(k, IDENTITY)), k);
+
+        List<Double> largest = all.parallelStream().collect(TopKCollector.largest(k, IDENTITY));
+        List<Double> negated = new ArrayList<Double>(numItems);
+        for (double value : all) {
+            negated.add(-value);
+        }
+        List<Double> negatedLargest = new ArrayList<Double>(largest.size());
+        for (double value : largest) {
+            negatedLargest.add(-value);
+        }
+        assertSmallest(negated, negatedLargest, k);
+    }
+
+    private static void assertSmallest(List<Double> all, List<Double> actual, int k) {
+        Double[] sorted = all.toArray(new Double[all.size()]);
+        Arrays.sort(sorted);
+        List<Double> expected = Arrays.asList(sorted).subList(0, Math.min(k, sorted.length));
+        if (!expected.equals(actual)) {
+            throw new RuntimeException("Expected top k " + expected + ", but got " + actual);
+        }
+    }
+}
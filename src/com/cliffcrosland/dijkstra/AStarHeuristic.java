@@ -0,0 +1,10 @@
+package com.cliffcrosland.dijkstra;
+
+/*
+ * A lower bound on the cost of the shortest path between two nodes of a `CompactGraph`, used to steer A* toward the
+ * finish node. The estimate must never be more than the true cost (it must be "admissible"), or A* may return a path
+ * that is not the shortest. Return infinity if `finish` is known to be unreachable from `node`.
+ */
+public interface AStarHeuristic {
+    double estimateDistance(int node, int finish);
+}
@@ -0,0 +1,69 @@
+package com.cliffcrosland.dijkstra;
+
+import com.cliffcrosland.graph.CompactGraph;
+import com.cliffcrosland.graph.GraphEdge;
+import com.cliffcrosland.graph.GraphNode;
+import com.cliffcrosland.heap.IndexedMinHeap;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * A* search: Dijkstra's algorithm, but nodes are popped in order of (distance from start) + (estimated distance to
+ * finish) instead of distance from start alone. Dijkstra grows a ball around `start` until it swallows `finish`; A*
+ * grows a region stretched toward `finish`, so it settles far fewer nodes when the estimate is good. With an estimate
+ * of zero everywhere, A* is exactly Dijkstra.
+ *
+ * See `AStarHeuristic` for the requirements on the estimate, and `LandmarkHeuristic` for an estimate that only needs
+ * the graph itself.
+ */
+public class AStarShortestPath {
+
+    // Same as `getShortestPath`, but with `GraphNode`s from the graph that `graph` was built from.
+    public static List<GraphEdge> getShortestPathBetweenGraphNodes(CompactGraph graph, GraphNode start,
+                                                                   GraphNode finish, AStarHeuristic heuristic) {
+        int[] path = getShortestPath(graph, graph.getNodeId(start), graph.getNodeId(finish), heuristic);
+        if (path == null) {
+            return null; // there is no path between start and finish.
+        }
+        return graph.toGraphEdges(path);
+    }
+
+    // Returns the ids of the edges along the shortest path from `start` to `finish`, or null if there is no such path.
+    // Edge weights must be non-negative.
+    //
+    // If the heuristic is consistent, meaning estimate(u) <= weight(u, v) + estimate(v) for every edge, each node is
+    // popped at most once and the runtime is that of Dijkstra, O((V + E) log V). A heuristic that is only admissible
+    // may pop a node, later find a shorter way to it, and have to push it again. Either way, the path returned when
+    // `finish` is popped is a shortest path.
+    public static int[] getShortestPath(CompactGraph graph, int start, int finish, AStarHeuristic heuristic) {
+        double[] distances = new double[graph.numNodes];
+        int[] predecessorEdges = new int[graph.numNodes];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(predecessorEdges, -1);
+        IndexedMinHeap heap = new IndexedMinHeap(graph.numNodes);
+        distances[start] = 0.0;
+        heap.add(start, heuristic.estimateDistance(start, finish));
+        while (!heap.isEmpty()) {
+            int node = heap.popMin();
+            if (node == finish) {
+                return DijkstraShortestPath.reconstructPath(graph, predecessorEdges, finish);
+            }
+            for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+                int neighbor = graph.targets[edge];
+                double distance = distances[node] + graph.weights[edge];
+                if (distance >= distances[neighbor]) continue;
+                double estimate = heuristic.estimateDistance(neighbor, finish);
+                if (estimate == Double.POSITIVE_INFINITY) continue; // `finish` cannot be reached through `neighbor`.
+                distances[neighbor] = distance;
+                predecessorEdges[neighbor] = edge;
+                if (heap.contains(neighbor)) {
+                    heap.decreaseKey(neighbor, distance + estimate);
+                } else {
+                    heap.add(neighbor, distance + estimate);
+                }
+            }
+        }
+        return null; // there is no path between start and finish.
+    }
+}
@@ -0,0 +1,750 @@
+package com.cliffcrosland.dijkstra;
+
+import com.cliffcrosland.graph.CompactGraph;
+import com.cliffcrosland.graph.GraphEdge;
+import com.cliffcrosland.graph.GraphNode;
+import com.cliffcrosland.heap.IndexedMinHeap;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Contraction hierarchies: spend time up front preprocessing a static graph so that shortest path queries only need to
+ * settle a few hundred nodes, even on graphs with millions of nodes.
+ *
+ * Preprocessing "contracts" nodes one at a time, from least to most important. Contracting node v removes it from the
+ * graph, but first, for every pair of neighbors u -> v -> x, checks whether u -> v -> x is the only shortest path
+ * from u to x among the remaining nodes. If it is, we add a "shortcut" edge u -> x with the cost of the two edges it
+ * replaces, so that distances among the remaining nodes do not change. To check, we run a small Dijkstra search from
+ * u that avoids v (a "witness search"). If it finds a path to x that is no longer than u -> v -> x, no shortcut is
+ * needed.
+ *
+ * The order in which nodes were contracted is their rank. Every shortest path in the original graph has a matching
+ * path in the graph plus shortcuts that first only climbs to higher ranks, then only descends. So a query runs
+ * Dijkstra upward from the start and upward along reversed edges from the finish, and the two searches meet at the
+ * highest-ranked node of the shortest path. Because only a few nodes are ranked above any given node, both searches
+ * die out quickly.
+ *
+ * The order matters a lot. We contract nodes that add the fewest shortcuts compared to the edges they remove first
+ * (their "edge difference"), with a penalty for nodes whose neighbors have already been contracted, so that
+ * contraction spreads evenly over the graph. Priorities go stale as the graph changes, so we recompute a node's
+ * priority when it reaches the top of the heap and put it back if it is no longer the smallest ("lazy updates").
+ *
+ * A shortcut remembers the two edges it replaces, which may themselves be shortcuts. Paths returned by queries are
+ * unpacked into edges of the original graph.
+ */
+public class ContractionHierarchy {
+    // A witness search gives up after settling this many nodes and assumes a shortcut is needed. Adding an unneeded
+    // shortcut never makes a query wrong, it just makes the hierarchy a little bigger.
+    private static final int WITNESS_SEARCH_SETTLE_LIMIT = 500;
+    // Computing a node's priority only needs a rough count of the shortcuts it would add, so those searches give up
+    // much sooner.
+    private static final int SIMULATED_WITNESS_SEARCH_SETTLE_LIMIT = 50;
+    private static final int FILE_FORMAT_VERSION = 1;
+
+    private int numNodes;
+    private int numOriginalEdges;
+    private int[] ranks;
+
+    // Edges that lead from each node to higher-ranked nodes. The upward edges of node v are the indices in
+    // [forwardBegin[v], forwardEnd[v]).
+    private int[] forwardBegin;
+    private int[] forwardEnd;
+    private int[] forwardTargets;
+    private double[] forwardWeights;
+    private int[] forwardEdges;
+
+    // Edges that lead from higher-ranked nodes into each node, stored at the lower-ranked node and pointing at the
+    // higher-ranked one, so the backward search can climb them in reverse.
+    private int[] backwardBegin;
+    private int[] backwardEnd;
+    private int[] backwardTargets;
+    private double[] backwardWeights;
+    private int[] backwardEdges;
+
+    // Edge ids below numOriginalEdges are edges of the original graph. Edge id numOriginalEdges + i is shortcut i,
+    // which replaces shortcutFirstEdges[i] followed by shortcutSecondEdges[i].
+    private int[] shortcutFirstEdges;
+    private int[] shortcutSecondEdges;
+
+    private ThreadLocal<QueryState> queryStates = new ThreadLocal<QueryState>();
+
+    private ContractionHierarchy() { }
+
+    // Preprocess `graph`, whose edge weights must be non-negative. Runtime depends heavily on the graph's structure;
+    // road-like graphs preprocess in roughly O(V log V) witness searches.
+    public static ContractionHierarchy build(CompactGraph graph) {
+        return new Builder(graph).build();
+    }
+
+    // Same as `getShortestPath`, but with `GraphNode`s from the graph that `graph` was built from. `graph` must be the
+    // graph this hierarchy was built from. Returns the same edges as
+    // `DijkstraShortestPath.getShortestPathBetweenGraphNodes`.
+    public List<GraphEdge> getShortestPathBetweenGraphNodes(CompactGraph graph, GraphNode start, GraphNode finish) {
+        int[] path = getShortestPath(graph.getNodeId(start), graph.getNodeId(finish));
+        if (path == null) {
+            return null; // there is no path between start and finish.
+        }
+        return graph.toGraphEdges(path);
+    }
+
+    // Returns the ids of the original graph's edges along the shortest path from `start` to `finish`, or null if there
+    // is no such path. Safe to call from several threads at once.
+    public int[] getShortestPath(int start, int finish) {
+        QueryState state = getQueryState();
+        int meetingNode = search(state, start, finish);
+        if (meetingNode == -1) {
+            state.reset();
+            return null; // there is no path between start and finish.
+        }
+        // Collect the hierarchy edges from start up to the meeting node, then from the meeting node down to finish.
+        int numForwardEdges = 0;
+        for (int node = meetingNode; node != start; node = state.forwardPredecessorNodes[node]) {
+            numForwardEdges++;
+        }
+        int numBackwardEdges = 0;
+        for (int node = meetingNode; node != finish; node = state.backwardPredecessorNodes[node]) {
+            numBackwardEdges++;
+        }
+        int[] hierarchyPath = new int[numForwardEdges + numBackwardEdges];
+        int i = numForwardEdges;
+        for (int node = meetingNode; node != start; node = state.forwardPredecessorNodes[node]) {
+            hierarchyPath[--i] = state.forwardPredecessorEdges[node];
+        }
+        i = numForwardEdges;
+        for (int node = meetingNode; node != finish; node = state.backwardPredecessorNodes[node]) {
+            hierarchyPath[i++] = state.backwardPredecessorEdges[node];
+        }
+        state.reset();
+        return unpack(hierarchyPath);
+    }
+
+    // The cost of the shortest path from `start` to `finish`, or infinity if there is no such path.
+    public double getDistance(int start, int finish) {
+        QueryState state = getQueryState();
+        int meetingNode = search(state, start, finish);
+        double distance = meetingNode == -1
+                ? Double.POSITIVE_INFINITY
+                : state.forwardDistances[meetingNode] + state.backwardDistances[meetingNode];
+        state.reset();
+        return distance;
+    }
+
+    // The cost of the shortest path from every source to every target. table[i][j] is the distance from sources[i] to
+    // targets[j], or infinity if there is no such path. Takes one upward search per source and one per target, rather
+    // than one query per pair.
+    //
+    // Every shortest path climbs from its source to its highest-ranked node v and then descends to its target. So we
+    // first run the backward upward search from each target until its heap is empty, and at every node v it settles
+    // we leave a note in v's "bucket": (target, distance from v down to the target). Then we run the forward upward
+    // search from each source, and at every node v it settles we combine its distance up to v with every note in v's
+    // bucket. Upward search spaces are small, so buckets are small too.
+    public double[][] getDistanceTable(int[] sources, int[] targets) {
+        QueryState state = getQueryState();
+        IntArrayList settledNodes = new IntArrayList();
+
+        // Collect every (node, target, distance) note, then group the notes by node, as in a CSR graph.
+        IntArrayList noteNodes = new IntArrayList();
+        IntArrayList noteTargets = new IntArrayList();
+        double[] noteDistances = new double[16];
+        for (int j = 0; j < targets.length; j++) {
+            settledNodes.clear();
+            searchUpward(state, targets[j], false, settledNodes);
+            for (int i = 0; i < settledNodes.size(); i++) {
+                int node = settledNodes.get(i);
+                if (noteNodes.size() == noteDistances.length) {
+                    noteDistances = Arrays.copyOf(noteDistances, 2 * noteDistances.length);
+                }
+                noteDistances[noteNodes.size()] = state.backwardDistances[node];
+                noteNodes.add(node);
+                noteTargets.add(j);
+            }
+            state.reset();
+        }
+        int[] bucketOffsets = new int[numNodes + 1];
+        for (int i = 0; i < noteNodes.size(); i++) {
+            bucketOffsets[noteNodes.get(i) + 1]++;
+        }
+        for (int node = 0; node < numNodes; node++) {
+            bucketOffsets[node + 1] += bucketOffsets[node];
+        }
+        int[] bucketTargets = new int[noteNodes.size()];
+        double[] bucketDistances = new double[noteNodes.size()];
+        int[] next = Arrays.copyOf(bucketOffsets, numNodes);
+        for (int i = 0; i < noteNodes.size(); i++) {
+            int k = next[noteNodes.get(i)]++;
+            bucketTargets[k] = noteTargets.get(i);
+            bucketDistances[k] = noteDistances[i];
+        }
+
+        double[][] table = new double[sources.length][targets.length];
+        for (int i = 0; i < sources.length; i++) {
+            Arrays.fill(table[i], Double.POSITIVE_INFINITY);
+            settledNodes.clear();
+            searchUpward(state, sources[i], true, settledNodes);
+            for (int s = 0; s < settledNodes.size(); s++) {
+                int node = settledNodes.get(s);
+                double distance = state.forwardDistances[node];
+                for (int k = bucketOffsets[node]; k < bucketOffsets[node + 1]; k++) {
+                    if (distance + bucketDistances[k] < table[i][bucketTargets[k]]) {
+                        table[i][bucketTargets[k]] = distance + bucketDistances[k];
+                    }
+                }
+            }
+            state.reset();
+        }
+        return table;
+    }
+
+    public int getNumNodes() {
+        return numNodes;
+    }
+
+    public int getNumShortcuts() {
+        return shortcutFirstEdges.length;
+    }
+
+    // The position of `node` in the contraction order. Higher ranks were contracted later.
+    public int getRank(int node) {
+        return ranks[node];
+    }
+
+    // === Serialization ===
+
+    // Write the hierarchy in a compact binary format that `readFrom` understands.
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(FILE_FORMAT_VERSION);
+        out.writeInt(numNodes);
+        out.writeInt(numOriginalEdges);
+        writeIntArray(out, ranks);
+        writeIntArray(out, forwardBegin);
+        writeIntArray(out, forwardEnd);
+        writeIntArray(out, forwardTargets);
+        writeDoubleArray(out, forwardWeights);
+        writeIntArray(out, forwardEdges);
+        writeIntArray(out, backwardBegin);
+        writeIntArray(out, backwardEnd);
+        writeIntArray(out, backwardTargets);
+        writeDoubleArray(out, backwardWeights);
+        writeIntArray(out, backwardEdges);
+        writeIntArray(out, shortcutFirstEdges);
+        writeIntArray(out, shortcutSecondEdges);
+        out.flush();
+    }
+
+    public static ContractionHierarchy readFrom(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+        int version = in.readInt();
+        if (version != FILE_FORMAT_VERSION) {
+            throw new IOException("Unsupported contraction hierarchy file format version: " + version);
+        }
+        ContractionHierarchy hierarchy = new ContractionHierarchy();
+        hierarchy.numNodes = in.readInt();
+        hierarchy.numOriginalEdges = in.readInt();
+        hierarchy.ranks = readIntArray(in);
+        hierarchy.forwardBegin = readIntArray(in);
+        hierarchy.forwardEnd = readIntArray(in);
+        hierarchy.forwardTargets = readIntArray(in);
+        hierarchy.forwardWeights = readDoubleArray(in);
+        hierarchy.forwardEdges = readIntArray(in);
+        hierarchy.backwardBegin = readIntArray(in);
+        hierarchy.backwardEnd = readIntArray(in);
+        hierarchy.backwardTargets = readIntArray(in);
+        hierarchy.backwardWeights = readDoubleArray(in);
+        hierarchy.backwardEdges = readIntArray(in);
+        hierarchy.shortcutFirstEdges = readIntArray(in);
+        hierarchy.shortcutSecondEdges = readIntArray(in);
+        return hierarchy;
+    }
+
+    private static void writeIntArray(DataOutputStream out, int[] arr) throws IOException {
+        out.writeInt(arr.length);
+        for (int value : arr) {
+            out.writeInt(value);
+        }
+    }
+
+    private static void writeDoubleArray(DataOutputStream out, double[] arr) throws IOException {
+        out.writeInt(arr.length);
+        for (double value : arr) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static int[] readIntArray(DataInputStream in) throws IOException {
+        int[] arr = new int[in.readInt()];
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = in.readInt();
+        }
+        return arr;
+    }
+
+    private static double[] readDoubleArray(DataInputStream in) throws IOException {
+        double[] arr = new double[in.readInt()];
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = in.readDouble();
+        }
+        return arr;
+    }
+
+    // === Query helpers ===
+
+    // Run the upward searches from `start` and `finish`, alternating between them. Returns the node where the best
+    // pair of upward paths meet, or -1 if they never meet. Leaves the search state in `state` for the caller to read
+    // and then reset.
+    //
+    // Unlike plain bidirectional Dijkstra, we cannot stop as soon as the frontiers' radii add up to the best path:
+    // the searches only climb, so the meeting node may be settled late by one of them. Each search instead runs until
+    // its own radius reaches the best path found so far.
+    private int search(QueryState state, int start, int finish) {
+        state.relaxForward(start, 0.0, -1, -1);
+        state.relaxBackward(finish, 0.0, -1, -1);
+        double bestDistance = Double.POSITIVE_INFINITY;
+        int meetingNode = -1;
+        boolean forwardTurn = true;
+        while (true) {
+            boolean forwardActive = !state.forwardHeap.isEmpty() && state.forwardHeap.peekMinKey() < bestDistance;
+            boolean backwardActive = !state.backwardHeap.isEmpty() && state.backwardHeap.peekMinKey() < bestDistance;
+            if (!forwardActive && !backwardActive) break;
+            boolean forward = forwardActive && (forwardTurn || !backwardActive);
+            forwardTurn = !forwardTurn;
+            if (forward) {
+                int node = state.forwardHeap.popMin();
+                double distance = state.forwardDistances[node];
+                if (distance + state.backwardDistances[node] < bestDistance) {
+                    bestDistance = distance + state.backwardDistances[node];
+                    meetingNode = node;
+                }
+                for (int i = forwardBegin[node]; i < forwardEnd[node]; i++) {
+                    state.relaxForward(forwardTargets[i], distance + forwardWeights[i], forwardEdges[i], node);
+                }
+            } else {
+                int node = state.backwardHeap.popMin();
+                double distance = state.backwardDistances[node];
+                if (distance + state.forwardDistances[node] < bestDistance) {
+                    bestDistance = distance + state.forwardDistances[node];
+                    meetingNode = node;
+                }
+                for (int i = backwardBegin[node]; i < backwardEnd[node]; i++) {
+                    state.relaxBackward(backwardTargets[i], distance + backwardWeights[i], backwardEdges[i], node);
+                }
+            }
+        }
+        return meetingNode;
+    }
+
+    // Run one upward search from `origin` until its heap is empty, appending every node it settles to `settledNodes`.
+    // Leaves the search state in `state` for the caller to read and then reset.
+    private void searchUpward(QueryState state, int origin, boolean forward, IntArrayList settledNodes) {
+        if (forward) {
+            state.relaxForward(origin, 0.0, -1, -1);
+            while (!state.forwardHeap.isEmpty()) {
+                int node = state.forwardHeap.popMin();
+                settledNodes.add(node);
+                double distance = state.forwardDistances[node];
+                for (int i = forwardBegin[node]; i < forwardEnd[node]; i++) {
+                    state.relaxForward(forwardTargets[i], distance + forwardWeights[i], forwardEdges[i], node);
+                }
+            }
+        } else {
+            state.relaxBackward(origin, 0.0, -1, -1);
+            while (!state.backwardHeap.isEmpty()) {
+                int node = state.backwardHeap.popMin();
+                settledNodes.add(node);
+                double distance = state.backwardDistances[node];
+                for (int i = backwardBegin[node]; i < backwardEnd[node]; i++) {
+                    state.relaxBackward(backwardTargets[i], distance + backwardWeights[i], backwardEdges[i], node);
+                }
+            }
+        }
+    }
+
+    // Replace every shortcut in `hierarchyPath` with the original edges it stands for. Shortcuts can be nested
+    // deeply, so we unpack with an explicit stack rather than recursion.
+    private int[] unpack(int[] hierarchyPath) {
+        IntArrayList path = new IntArrayList();
+        int[] stack = new int[16];
+        for (int edge : hierarchyPath) {
+            int stackSize = 0;
+            stack[stackSize++] = edge;
+            while (stackSize > 0) {
+                int top = stack[--stackSize];
+                if (top < numOriginalEdges) {
+                    path.add(top);
+                    continue;
+                }
+                if (stackSize + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, 2 * stack.length);
+                }
+                // Push the second half first, so that the first half is unpacked first.
+                stack[stackSize++] = shortcutSecondEdges[top - numOriginalEdges];
+                stack[stackSize++] = shortcutFirstEdges[top - numOriginalEdges];
+            }
+        }
+        return path.toArray();
+    }
+
+    private QueryState getQueryState() {
+        QueryState state = queryStates.get();
+        if (state == null) {
+            state = new QueryState(numNodes);
+            queryStates.set(state);
+        }
+        return state;
+    }
+
+    // Per-thread arrays for the two upward searches. Allocated once and reset after every query by only touching the
+    // nodes that the query reached, so a query costs time proportional to the size of its search spaces, not V.
+    private static class QueryState {
+        double[] forwardDistances;
+        double[] backwardDistances;
+        int[] forwardPredecessorEdges;
+        int[] forwardPredecessorNodes;
+        int[] backwardPredecessorEdges;
+        int[] backwardPredecessorNodes;
+        IndexedMinHeap forwardHeap;
+        IndexedMinHeap backwardHeap;
+        int[] touchedNodes = new int[64];
+        int numTouchedNodes;
+
+        public QueryState(int numNodes) {
+            forwardDistances = new double[numNodes];
+            backwardDistances = new double[numNodes];
+            forwardPredecessorEdges = new int[numNodes];
+            forwardPredecessorNodes = new int[numNodes];
+            backwardPredecessorEdges = new int[numNodes];
+            backwardPredecessorNodes = new int[numNodes];
+            forwardHeap = new IndexedMinHeap(numNodes);
+            backwardHeap = new IndexedMinHeap(numNodes);
+            Arrays.fill(forwardDistances, Double.POSITIVE_INFINITY);
+            Arrays.fill(backwardDistances, Double.POSITIVE_INFINITY);
+        }
+
+        public void relaxForward(int node, double distance, int edge, int predecessor) {
+            if (distance >= forwardDistances[node]) return;
+            touch(node);
+            forwardDistances[node] = distance;
+            forwardPredecessorEdges[node] = edge;
+            forwardPredecessorNodes[node] = predecessor;
+            if (forwardHeap.contains(node)) {
+                forwardHeap.decreaseKey(node, distance);
+            } else {
+                forwardHeap.add(node, distance);
+            }
+        }
+
+        public void relaxBackward(int node, double distance, int edge, int predecessor) {
+            if (distance >= backwardDistances[node]) return;
+            touch(node);
+            backwardDistances[node] = distance;
+            backwardPredecessorEdges[node] = edge;
+            backwardPredecessorNodes[node] = predecessor;
+            if (backwardHeap.contains(node)) {
+                backwardHeap.decreaseKey(node, distance);
+            } else {
+                backwardHeap.add(node, distance);
+            }
+        }
+
+        private void touch(int node) {
+            if (forwardDistances[node] != Double.POSITIVE_INFINITY ||
+                    backwardDistances[node] != Double.POSITIVE_INFINITY) {
+                return;
+            }
+            if (numTouchedNodes == touchedNodes.length) {
+                touchedNodes = Arrays.copyOf(touchedNodes, 2 * touchedNodes.length);
+            }
+            touchedNodes[numTouchedNodes++] = node;
+        }
+
+        public void reset() {
+            for (int i = 0; i < numTouchedNodes; i++) {
+                forwardDistances[touchedNodes[i]] = Double.POSITIVE_INFINITY;
+                backwardDistances[touchedNodes[i]] = Double.POSITIVE_INFINITY;
+            }
+            numTouchedNodes = 0;
+            forwardHeap.clear();
+            backwardHeap.clear();
+        }
+    }
+
+    // === Preprocessing ===
+
+    private static class Builder {
+        private CompactGraph graph;
+        private int numNodes;
+        // The graph of not-yet-contracted nodes, including shortcuts, with at most one edge between any two nodes.
+        private EdgeList[] outEdges;
+        private EdgeList[] inEdges;
+        private int[] numContractedNeighbors;
+        private int[] lastContractedNeighbors;
+
+        private IntArrayList shortcutFirstEdges = new IntArrayList();
+        private IntArrayList shortcutSecondEdges = new IntArrayList();
+        private EdgeList upwardForward = new EdgeList();
+        private EdgeList upwardBackward = new EdgeList();
+
+        // Witness search state, reset after each search by only touching nodes the search reached.
+        private double[] witnessDistances;
+        private boolean[] isWitnessTarget;
+        private IndexedMinHeap witnessHeap;
+        private IntArrayList witnessTouchedNodes = new IntArrayList();
+
+        public Builder(CompactGraph graph) {
+            this.graph = graph;
+            this.numNodes = graph.numNodes;
+            outEdges = new EdgeList[numNodes];
+            inEdges = new EdgeList[numNodes];
+            for (int node = 0; node < numNodes; node++) {
+                outEdges[node] = new EdgeList();
+                inEdges[node] = new EdgeList();
+            }
+            for (int node = 0; node < numNodes; node++) {
+                for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+                    if (graph.weights[edge] < 0.0) {
+                        throw new IllegalArgumentException("Edge weights must be non-negative.");
+                    }
+                    int target = graph.targets[edge];
+                    if (target == node) continue; // a self-loop is never part of a shortest path
+                    addOrImproveEdge(node, target, graph.weights[edge], edge);
+                }
+            }
+            numContractedNeighbors = new int[numNodes];
+            lastContractedNeighbors = new int[numNodes];
+            Arrays.fill(lastContractedNeighbors, -1);
+            witnessDistances = new double[numNodes];
+            Arrays.fill(witnessDistances, Double.POSITIVE_INFINITY);
+            witnessHeap = new IndexedMinHeap(numNodes);
+            isWitnessTarget = new boolean[numNodes];
+        }
+
+        public ContractionHierarchy build() {
+            IndexedMinHeap order = new IndexedMinHeap(numNodes);
+            for (int node = 0; node < numNodes; node++) {
+                order.add(node, priority(node));
+            }
+            int[] ranks = new int[numNodes];
+            int[] forwardBegin = new int[numNodes];
+            int[] forwardEnd = new int[numNodes];
+            int[] backwardBegin = new int[numNodes];
+            int[] backwardEnd = new int[numNodes];
+            int rank = 0;
+            while (!order.isEmpty()) {
+                int node = order.popMin();
+                double priority = priority(node);
+                if (!order.isEmpty() && priority > order.peekMinKey()) {
+                    // Our priority went stale while other nodes were contracted. Try again later.
+                    order.add(node, priority);
+                    continue;
+                }
+                ranks[node] = rank++;
+                // Every edge still touching `node` leads to a node that will be contracted later, i.e. upward.
+                forwardBegin[node] = upwardForward.size;
+                for (int i = 0; i < outEdges[node].size; i++) {
+                    upwardForward.add(outEdges[node].nodes[i], outEdges[node].weights[i], outEdges[node].edges[i]);
+                }
+                forwardEnd[node] = upwardForward.size;
+                backwardBegin[node] = upwardBackward.size;
+                for (int i = 0; i < inEdges[node].size; i++) {
+                    upwardBackward.add(inEdges[node].nodes[i], inEdges[node].weights[i], inEdges[node].edges[i]);
+                }
+                backwardEnd[node] = upwardBackward.size;
+                contract(node, false);
+                updateNeighborPriorities(order, node, forwardBegin[node], backwardBegin[node]);
+            }
+
+            ContractionHierarchy hierarchy = new ContractionHierarchy();
+            hierarchy.numNodes = numNodes;
+            hierarchy.numOriginalEdges = graph.numEdges;
+            hierarchy.ranks = ranks;
+            hierarchy.forwardBegin = forwardBegin;
+            hierarchy.forwardEnd = forwardEnd;
+            hierarchy.forwardTargets = Arrays.copyOf(upwardForward.nodes, upwardForward.size);
+            hierarchy.forwardWeights = Arrays.copyOf(upwardForward.weights, upwardForward.size);
+            hierarchy.forwardEdges = Arrays.copyOf(upwardForward.edges, upwardForward.size);
+            hierarchy.backwardBegin = backwardBegin;
+            hierarchy.backwardEnd = backwardEnd;
+            hierarchy.backwardTargets = Arrays.copyOf(upwardBackward.nodes, upwardBackward.size);
+            hierarchy.backwardWeights = Arrays.copyOf(upwardBackward.weights, upwardBackward.size);
+            hierarchy.backwardEdges = Arrays.copyOf(upwardBackward.edges, upwardBackward.size);
+            hierarchy.shortcutFirstEdges = shortcutFirstEdges.toArray();
+            hierarchy.shortcutSecondEdges = shortcutSecondEdges.toArray();
+            return hierarchy;
+        }
+
+        // Contracting a node changes the neighborhoods of its neighbors, so refresh their priorities right away rather
+        // than waiting for them to go stale at the top of the heap. The neighbors are read from the upward edges we
+        // just recorded, since `node` is no longer in the graph of uncontracted nodes. A neighbor that is both an in-
+        // and an out-neighbor is only updated once.
+        private void updateNeighborPriorities(IndexedMinHeap order, int node, int upwardForwardBegin,
+                                              int upwardBackwardBegin) {
+            for (int i = upwardForwardBegin; i < upwardForward.size; i++) {
+                updatePriority(order, upwardForward.nodes[i], node);
+            }
+            for (int i = upwardBackwardBegin; i < upwardBackward.size; i++) {
+                updatePriority(order, upwardBackward.nodes[i], node);
+            }
+        }
+
+        private void updatePriority(IndexedMinHeap order, int node, int contractedNeighbor) {
+            if (lastContractedNeighbors[node] == contractedNeighbor) return;
+            lastContractedNeighbors[node] = contractedNeighbor;
+            double priority = priority(node);
+            if (priority < order.getKey(node)) {
+                order.decreaseKey(node, priority);
+            }
+        }
+
+        // Smaller is contracted sooner.
+        private double priority(int node) {
+            int numShortcuts = contract(node, true);
+            int edgeDifference = numShortcuts - outEdges[node].size - inEdges[node].size;
+            return edgeDifference + numContractedNeighbors[node];
+        }
+
+        // Find the shortcuts that contracting `node` requires. If `simulate` is true, just count them. Otherwise, add
+        // them, and remove `node` from the graph of uncontracted nodes.
+        private int contract(int node, boolean simulate) {
+            EdgeList in = inEdges[node];
+            EdgeList out = outEdges[node];
+            int numShortcuts = 0;
+            for (int i = 0; i < in.size; i++) {
+                int source = in.nodes[i];
+                double maxDistance = 0.0;
+                for (int j = 0; j < out.size; j++) {
+                    if (out.nodes[j] == source) continue;
+                    maxDistance = Math.max(maxDistance, in.weights[i] + out.weights[j]);
+                }
+                int numTargets = 0;
+                for (int j = 0; j < out.size; j++) {
+                    if (out.nodes[j] == source) continue;
+                    isWitnessTarget[out.nodes[j]] = true;
+                    numTargets++;
+                }
+                int settleLimit = simulate ? SIMULATED_WITNESS_SEARCH_SETTLE_LIMIT : WITNESS_SEARCH_SETTLE_LIMIT;
+                runWitnessSearch(source, node, maxDistance, numTargets, settleLimit);
+                for (int j = 0; j < out.size; j++) {
+                    isWitnessTarget[out.nodes[j]] = false;
+                }
+                for (int j = 0; j < out.size; j++) {
+                    int target = out.nodes[j];
+                    if (target == source) continue;
+                    double viaDistance = in.weights[i] + out.weights[j];
+                    if (witnessDistances[target] <= viaDistance) continue;
+                    numShortcuts++;
+                    if (!simulate) {
+                        int shortcut = graph.numEdges + shortcutFirstEdges.size();
+                        shortcutFirstEdges.add(in.edges[i]);
+                        shortcutSecondEdges.add(out.edges[j]);
+                        addOrImproveEdge(source, target, viaDistance, shortcut);
+                    }
+                }
+                resetWitnessSearch();
+            }
+            if (!simulate) {
+                for (int i = 0; i < in.size; i++) {
+                    outEdges[in.nodes[i]].remove(node);
+                    numContractedNeighbors[in.nodes[i]]++;
+                }
+                for (int i = 0; i < out.size; i++) {
+                    inEdges[out.nodes[i]].remove(node);
+                    numContractedNeighbors[out.nodes[i]]++;
+                }
+            }
+            return numShortcuts;
+        }
+
+        // Dijkstra from `source` over uncontracted nodes other than `excluded`. Stops once all `numTargets` marked
+        // targets are settled, once every node within `maxDistance` is settled, or once the settle limit is reached.
+        // Nodes farther than `maxDistance` are never even added to the heap.
+        private void runWitnessSearch(int source, int excluded, double maxDistance, int numTargets, int settleLimit) {
+            witnessDistances[source] = 0.0;
+            witnessTouchedNodes.add(source);
+            witnessHeap.add(source, 0.0);
+            int numSettled = 0;
+            while (!witnessHeap.isEmpty() && numSettled < settleLimit) {
+                if (witnessHeap.peekMinKey() > maxDistance) break;
+                int node = witnessHeap.popMin();
+                numSettled++;
+                if (isWitnessTarget[node] && --numTargets == 0) break;
+                EdgeList out = outEdges[node];
+                for (int i = 0; i < out.size; i++) {
+                    int neighbor = out.nodes[i];
+                    if (neighbor == excluded) continue;
+                    double distance = witnessDistances[node] + out.weights[i];
+                    if (distance > maxDistance || distance >= witnessDistances[neighbor]) continue;
+                    if (witnessDistances[neighbor] == Double.POSITIVE_INFINITY) {
+                        witnessTouchedNodes.add(neighbor);
+                    }
+                    witnessDistances[neighbor] = distance;
+                    if (witnessHeap.contains(neighbor)) {
+                        witnessHeap.decreaseKey(neighbor, distance);
+                    } else {
+                        witnessHeap.add(neighbor, distance);
+                    }
+                }
+            }
+        }
+
+        private void resetWitnessSearch() {
+            for (int i = 0; i < witnessTouchedNodes.size(); i++) {
+                witnessDistances[witnessTouchedNodes.get(i)] = Double.POSITIVE_INFINITY;
+            }
+            witnessTouchedNodes.clear();
+            witnessHeap.clear();
+        }
+
+        private void addOrImproveEdge(int from, int to, double weight, int edge) {
+            outEdges[from].addOrImprove(to, weight, edge);
+            inEdges[to].addOrImprove(from, weight, edge);
+        }
+    }
+
+    // A growable list of (neighbor, weight, edge id) triples, stored as parallel arrays.
+    private static class EdgeList {
+        int size;
+        int[] nodes = new int[4];
+        double[] weights = new double[4];
+        int[] edges = new int[4];
+
+        public void add(int node, double weight, int edge) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, 2 * size);
+                weights = Arrays.copyOf(weights, 2 * size);
+                edges = Arrays.copyOf(edges, 2 * size);
+            }
+            nodes[size] = node;
+            weights[size] = weight;
+            edges[size] = edge;
+            size++;
+        }
+
+        // Keep at most one entry per neighbor: the cheapest.
+        public void addOrImprove(int node, double weight, int edge) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    if (weight < weights[i]) {
+                        weights[i] = weight;
+                        edges[i] = edge;
+                    }
+                    return;
+                }
+            }
+            add(node, weight, edge);
+        }
+
+        public void remove(int node) {
+            for (int i = 0; i < size; i++) {
+                if (nodes[i] == node) {
+                    size--;
+                    nodes[i] = nodes[size];
+                    weights[i] = weights[size];
+                    edges[i] = edges[size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.cliffcrosland.dijkstra;
+
+import com.cliffcrosland.graph.CompactGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Delta-stepping (Meyer and Sanders): a single-source shortest path algorithm that relaxes many edges in parallel.
+ *
+ * Dijkstra settles nodes strictly one at a time, in order of distance. Delta-stepping relaxes that order: nodes are
+ * kept in buckets of width delta, so bucket i holds nodes whose tentative distance is in [i * delta, (i + 1) * delta),
+ * and all of the nodes in the smallest non-empty bucket are processed at once, in parallel.
+ *
+ * Edges are split into "light" edges, no longer than delta, and "heavy" ones. Relaxing a light edge out of bucket i may
+ * put a node back into bucket i, so we keep relaxing the light edges of bucket i until it stays empty. A heavy edge
+ * out of bucket i always leads to a later bucket, so each node's heavy edges only need to be relaxed once, after
+ * bucket i is finished. Nodes can be processed more than once, unlike in Dijkstra, but every pass over a bucket is
+ * an independent parallel loop.
+ *
+ * Delta trades parallelism against wasted work. With delta at least the largest edge weight, this is Bellman-Ford
+ * with a work queue. With delta close to zero, this is Dijkstra, one node per bucket. A delta of about the largest edge
+ * weight divided by the average out-degree works well for graphs with random weights.
+ *
+ * Tentative distances are shared between threads as the bits of a double in an AtomicLongArray, and lowered with
+ * compare-and-set. Threads never block on each other.
+ */
+public class DeltaSteppingShortestPath {
+    // Below this many nodes, coordinating threads costs more than it saves, and we run plain Dijkstra instead.
+    private static final int SEQUENTIAL_THRESHOLD = 10000;
+    // A parallel loop over a bucket splits it into chunks of about this many nodes.
+    private static final int CHUNK_SIZE = 256;
+
+    // The distance from `start` to every node, or infinity for nodes that `start` cannot reach. Edge weights must be
+    // non-negative. Uses the default delta and the common fork-join pool.
+    public static double[] getShortestDistances(CompactGraph graph, int start) {
+        return getShortestDistances(graph, start, getDefaultDelta(graph), ForkJoinPool.commonPool());
+    }
+
+    // Same as above, with a given delta, running on the threads of `pool`.
+    public static double[] getShortestDistances(CompactGraph graph, int start, double delta, ForkJoinPool pool) {
+        if (!(delta > 0.0)) {
+            throw new IllegalArgumentException("Delta must be positive.");
+        }
+        if (graph.numNodes < SEQUENTIAL_THRESHOLD || pool.getParallelism() == 1) {
+            return DijkstraShortestPath.getShortestDistances(graph, start);
+        }
+        return new Search(graph, delta, pool).run(start);
+    }
+
+    // The full tree of shortest paths from `start`, with the default delta and the common fork-join pool.
+    public static ShortestPathTree getShortestPathTree(CompactGraph graph, int start) {
+        return getShortestPathTree(graph, start, getDefaultDelta(graph), ForkJoinPool.commonPool());
+    }
+
+    // Same as above, with a given delta, running on the threads of `pool`.
+    //
+    // Threads race to lower each node's distance, so we do not try to track predecessor edges during the search.
+    // Instead, once the distances are final, we walk from `start` along "tight" edges u -> v where
+    // distance(u) + weight = distance(v). Every reachable node has one: the edge that last lowered its distance. This
+    // extra pass is O(V + E) and needs no heap.
+    public static ShortestPathTree getShortestPathTree(CompactGraph graph, int start, double delta,
+                                                       ForkJoinPool pool) {
+        if (graph.numNodes < SEQUENTIAL_THRESHOLD || pool.getParallelism() == 1) {
+            return DijkstraShortestPath.getShortestPathTree(graph, start);
+        }
+        double[] distances = getShortestDistances(graph, start, delta, pool);
+        int[] predecessorEdges = new int[graph.numNodes];
+        Arrays.fill(predecessorEdges, -1);
+        boolean[] visited = new boolean[graph.numNodes];
+        int[] queue = new int[graph.numNodes];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        visited[start] = true;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+                int neighbor = graph.targets[edge];
+                if (!visited[neighbor] && distances[node] + graph.weights[edge] == distances[neighbor]) {
+                    visited[neighbor] = true;
+                    predecessorEdges[neighbor] = edge;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return new ShortestPathTree(graph, start, distances, predecessorEdges);
+    }
+
+    // O(E) - The largest edge weight divided by the average out-degree, or 1 if every edge weight is zero.
+    public static double getDefaultDelta(CompactGraph graph) {
+        double maxWeight = 0.0;
+        for (int edge = 0; edge < graph.numEdges; edge++) {
+            maxWeight = Math.max(maxWeight, graph.weights[edge]);
+        }
+        if (maxWeight == 0.0) {
+            return 1.0;
+        }
+        double averageOutDegree = (double) graph.numEdges / Math.max(1, graph.numNodes);
+        return maxWeight / Math.max(1.0, averageOutDegree);
+    }
+
+    // The state of one delta-stepping run.
+    private static class Search {
+        CompactGraph graph;
+        double delta;
+        ForkJoinPool pool;
+        AtomicLongArray distances;
+
+        // Bucket i is stored at buckets[i % buckets.length]. Nodes relaxed out of bucket i land in a bucket no later
+        // than i + 1 + maxWeight / delta, so the buckets in use never wrap around onto each other. A node may sit in
+        // several buckets at once; it only counts in the one its current distance belongs to.
+        IntArrayList[] buckets;
+        int numBucketedNodes;
+
+        // Stamps that mark which nodes are already in the current frontier, and which have already been processed in
+        // the current bucket, without clearing an array per bucket.
+        int[] frontierStamps;
+        int[] bucketStamps;
+        int frontierStamp;
+
+        public Search(CompactGraph graph, double delta, ForkJoinPool pool) {
+            this.graph = graph;
+            this.delta = delta;
+            this.pool = pool;
+            distances = new AtomicLongArray(graph.numNodes);
+            long infinity = Double.doubleToRawLongBits(Double.POSITIVE_INFINITY);
+            for (int node = 0; node < graph.numNodes; node++) {
+                distances.set(node, infinity);
+            }
+            double maxWeight = 0.0;
+            for (int edge = 0; edge < graph.numEdges; edge++) {
+                maxWeight = Math.max(maxWeight, graph.weights[edge]);
+            }
+            double numBuckets = Math.floor(maxWeight / delta) + 2;
+            if (numBuckets > Integer.MAX_VALUE / 2) {
+                throw new IllegalArgumentException("Delta is too small compared to the largest edge weight.");
+            }
+            buckets = new IntArrayList[(int) numBuckets];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new IntArrayList();
+            }
+            frontierStamps = new int[graph.numNodes];
+            bucketStamps = new int[graph.numNodes];
+            Arrays.fill(bucketStamps, -1);
+        }
+
+        public double[] run(int start) {
+            distances.set(start, Double.doubleToRawLongBits(0.0));
+            addToBucket(start);
+            long bucket = 0;
+            IntArrayList bucketNodes = new IntArrayList();
+            while (numBucketedNodes > 0) {
+                IntArrayList slot = buckets[(int) (bucket % buckets.length)];
+                bucketNodes.clear();
+                while (!slot.isEmpty()) {
+                    // Take the nodes that really belong to this bucket, once each, and relax their light edges. Some
+                    // of them may fall back into this same bucket, so repeat until it stays empty.
+                    int[] frontier = takeFrontier(slot, bucket);
+                    for (int node : frontier) {
+                        if (bucketStamps[node] != (int) bucket) {
+                            bucketStamps[node] = (int) bucket;
+                            bucketNodes.add(node);
+                        }
+                    }
+                    addAllToBuckets(pool.invoke(new RelaxTask(this, frontier, 0, frontier.length, true)));
+                }
+                int[] settled = bucketNodes.toArray();
+                addAllToBuckets(pool.invoke(new RelaxTask(this, settled, 0, settled.length, false)));
+                bucket++;
+            }
+            double[] ret = new double[graph.numNodes];
+            for (int node = 0; node < graph.numNodes; node++) {
+                ret[node] = Double.longBitsToDouble(distances.get(node));
+            }
+            return ret;
+        }
+
+        // Empty `slot`, returning the nodes in it whose distance still belongs to `bucket`, without duplicates.
+        private int[] takeFrontier(IntArrayList slot, long bucket) {
+            frontierStamp++;
+            IntArrayList frontier = new IntArrayList();
+            for (int i = 0; i < slot.size(); i++) {
+                int node = slot.get(i);
+                if (bucketOf(node) == bucket && frontierStamps[node] != frontierStamp) {
+                    frontierStamps[node] = frontierStamp;
+                    frontier.add(node);
+                }
+            }
+            numBucketedNodes -= slot.size();
+            slot.clear();
+            return frontier.toArray();
+        }
+
+        private void addAllToBuckets(IntArrayList nodes) {
+            for (int i = 0; i < nodes.size(); i++) {
+                addToBucket(nodes.get(i));
+            }
+        }
+
+        private void addToBucket(int node) {
+            buckets[(int) (bucketOf(node) % buckets.length)].add(node);
+            numBucketedNodes++;
+        }
+
+        private long bucketOf(int node) {
+            return (long) (getDistance(node) / delta);
+        }
+
+        public double getDistance(int node) {
+            return Double.longBitsToDouble(distances.get(node));
+        }
+
+        // Lower the distance of `node` to `distance` if that is an improvement. Returns whether it was.
+        public boolean relax(int node, double distance) {
+            while (true) {
+                long current = distances.get(node);
+                if (distance >= Double.longBitsToDouble(current)) return false;
+                if (distances.compareAndSet(node, current, Double.doubleToRawLongBits(distance))) return true;
+            }
+        }
+    }
+
+    // Relax either the light or the heavy edges out of nodes[begin, end), splitting the range in half until it is
+    // small. Returns the nodes whose distance was lowered, to be put into their new buckets.
+    private static class RelaxTask extends RecursiveTask<IntArrayList> {
+        private static final long serialVersionUID = 1L;
+
+        Search search;
+        int[] nodes;
+        int begin;
+        int end;
+        boolean light;
+
+        public RelaxTask(Search search, int[] nodes, int begin, int end, boolean light) {
+            this.search = search;
+            this.nodes = nodes;
+            this.begin = begin;
+            this.end = end;
+            this.light = light;
+        }
+
+        @Override
+        protected IntArrayList compute() {
+            if (end - begin > CHUNK_SIZE) {
+                int mid = (begin + end) >>> 1;
+                RelaxTask left = new RelaxTask(search, nodes, begin, mid, light);
+                left.fork();
+                IntArrayList improved = new RelaxTask(search, nodes, mid, end, light).compute();
+                improved.addAll(left.join());
+                return improved;
+            }
+            CompactGraph graph = search.graph;
+            IntArrayList improved = new IntArrayList();
+            for (int i = begin; i < end; i++) {
+                int node = nodes[i];
+                double distance = search.getDistance(node);
+                for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+                    double weight = graph.weights[edge];
+                    if ((weight <= search.delta) != light) continue;
+                    if (search.relax(graph.targets[edge], distance + weight)) {
+                        improved.add(graph.targets[edge]);
+                    }
+                }
+            }
+            return improved;
+        }
+    }
+}
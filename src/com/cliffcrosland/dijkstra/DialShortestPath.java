@@ -0,0 +1,149 @@
+package com.cliffcrosland.dijkstra;
+
+import com.cliffcrosland.graph.CompactGraph;
+
+import java.util.Arrays;
+
+/*
+ * Dial's algorithm: Dijkstra's algorithm for graphs whose edge weights are small non-negative integers, with a bucket
+ * queue in place of the heap.
+ *
+ * If every edge weight is an integer in [0, C], then every tentative distance in the queue is within C of the
+ * smallest one. So we keep C + 1 buckets in a circle, where bucket d % (C + 1) holds the nodes at tentative distance
+ * d, and walk around the circle to find the next node to settle. Adding a node and lowering its distance are O(1),
+ * because each bucket is a doubly linked list threaded through two int arrays, and finding the next node costs at most
+ * one trip around the circle per distinct distance. The whole search is O(V + E + D), where D is the largest distance,
+ * with no comparisons between keys at all.
+ *
+ * Distances are added up as longs, so they are exact.
+ */
+public class DialShortestPath {
+    // The largest edge weight we build buckets for. Graphs with heavier edges are better served by a heap.
+    public static final int MAX_WEIGHT = 1 << 20;
+
+    // O(E) - The largest edge weight in `graph`, if every edge weight is an integer in [0, MAX_WEIGHT]. Otherwise -1.
+    public static int getMaxIntegerWeight(CompactGraph graph) {
+        int maxWeight = 0;
+        for (int edge = 0; edge < graph.numEdges; edge++) {
+            double weight = graph.weights[edge];
+            if (!(weight >= 0.0 && weight <= MAX_WEIGHT) || weight != Math.rint(weight)) {
+                return -1;
+            }
+            maxWeight = Math.max(maxWeight, (int) weight);
+        }
+        return maxWeight;
+    }
+
+    // O(V + E + D) - The full tree of shortest paths from `start`. If the edge weights turn out not to be small
+    // non-negative integers, falls back to `DijkstraShortestPath.getShortestPathTree`.
+    public static ShortestPathTree getShortestPathTree(CompactGraph graph, int start) {
+        int maxWeight = getMaxIntegerWeight(graph);
+        if (maxWeight == -1) {
+            return DijkstraShortestPath.getShortestPathTree(graph, start);
+        }
+        return getShortestPathTree(graph, start, maxWeight);
+    }
+
+    // Same as above, when the caller already knows that every edge weight is an integer in [0, maxWeight].
+    public static ShortestPathTree getShortestPathTree(CompactGraph graph, int start, int maxWeight) {
+        double[] distances = new double[graph.numNodes];
+        int[] predecessorEdges = new int[graph.numNodes];
+        run(graph, start, -1, maxWeight, distances, predecessorEdges);
+        return new ShortestPathTree(graph, start, distances, predecessorEdges);
+    }
+
+    // O(V + E + D) - The ids of the edges along the shortest path from `start` to `finish`, or null if there is no
+    // such path. Stops as soon as `finish` is settled. Falls back to Dijkstra like `getShortestPathTree`.
+    public static int[] getShortestPath(CompactGraph graph, int start, int finish) {
+        int maxWeight = getMaxIntegerWeight(graph);
+        if (maxWeight == -1) {
+            return DijkstraShortestPath.getShortestPath(graph, start, finish);
+        }
+        double[] distances = new double[graph.numNodes];
+        int[] predecessorEdges = new int[graph.numNodes];
+        run(graph, start, finish, maxWeight, distances, predecessorEdges);
+        if (distances[finish] == Double.POSITIVE_INFINITY) {
+            return null; // there is no path between start and finish.
+        }
+        return DijkstraShortestPath.reconstructPath(graph, predecessorEdges, finish);
+    }
+
+    // Fills in `distances` and `predecessorEdges` like `DijkstraShortestPath.runDijkstra`. Stops once `finish` is
+    // settled, unless it is -1.
+    private static void run(CompactGraph graph, int start, int finish, int maxWeight, double[] distances,
+                            int[] predecessorEdges) {
+        if (maxWeight < 0 || maxWeight > MAX_WEIGHT) {
+            throw new IllegalArgumentException("Max weight must be in [0, " + MAX_WEIGHT + "].");
+        }
+        int numBuckets = maxWeight + 1;
+        int[] bucketHeads = new int[numBuckets];
+        int[] next = new int[graph.numNodes];
+        int[] prev = new int[graph.numNodes];
+        long[] integerDistances = new long[graph.numNodes];
+        Arrays.fill(bucketHeads, -1);
+        Arrays.fill(integerDistances, Long.MAX_VALUE);
+        Arrays.fill(predecessorEdges, -1);
+
+        integerDistances[start] = 0;
+        push(bucketHeads, next, prev, 0, start);
+        int numQueued = 1;
+        long current = 0;
+        while (numQueued > 0) {
+            int bucket = (int) (current % numBuckets);
+            int node = bucketHeads[bucket];
+            if (node == -1) {
+                current++;
+                continue;
+            }
+            unlink(bucketHeads, next, prev, bucket, node);
+            numQueued--;
+            if (node == finish) break;
+            for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+                double weight = graph.weights[edge];
+                if (!(weight >= 0.0 && weight <= maxWeight) || weight != Math.rint(weight)) {
+                    throw new IllegalArgumentException("Edge weight " + weight + " is not an integer in [0, " +
+                            maxWeight + "].");
+                }
+                int neighbor = graph.targets[edge];
+                long distance = current + (long) weight;
+                if (distance < integerDistances[neighbor]) {
+                    if (integerDistances[neighbor] != Long.MAX_VALUE) {
+                        unlink(bucketHeads, next, prev, (int) (integerDistances[neighbor] % numBuckets), neighbor);
+                    } else {
+                        numQueued++;
+                    }
+                    integerDistances[neighbor] = distance;
+                    predecessorEdges[neighbor] = edge;
+                    push(bucketHeads, next, prev, (int) (distance % numBuckets), neighbor);
+                }
+            }
+        }
+        for (int node = 0; node < graph.numNodes; node++) {
+            distances[node] = integerDistances[node] == Long.MAX_VALUE
+                    ? Double.POSITIVE_INFINITY
+                    : (double) integerDistances[node];
+        }
+    }
+
+    // O(1) - Put `node` at the front of `bucket`.
+    private static void push(int[] bucketHeads, int[] next, int[] prev, int bucket, int node) {
+        next[node] = bucketHeads[bucket];
+        prev[node] = -1;
+        if (bucketHeads[bucket] != -1) {
+            prev[bucketHeads[bucket]] = node;
+        }
+        bucketHeads[bucket] = node;
+    }
+
+    // O(1) - Take `node` out of `bucket`.
+    private static void unlink(int[] bucketHeads, int[] next, int[] prev, int bucket, int node) {
+        if (prev[node] == -1) {
+            bucketHeads[bucket] = next[node];
+        } else {
+            next[prev[node]] = next[node];
+        }
+        if (next[node] != -1) {
+            prev[next[node]] = prev[node];
+        }
+    }
+}
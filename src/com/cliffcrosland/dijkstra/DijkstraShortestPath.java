@@ -1,57 +1,397 @@
 package com.cliffcrosland.dijkstra;
 
+import com.cliffcrosland.graph.CompactGraph;
 import com.cliffcrosland.graph.Graph;
 import com.cliffcrosland.graph.GraphEdge;
 import com.cliffcrosland.graph.GraphNode;
+import com.cliffcrosland.heap.IndexedMinHeap;
 
 import java.util.*;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Created by cliftoncrosland on 5/27/15.
  */
 public class DijkstraShortestPath {
+    // O((V + E) log V) - Dijkstra's algorithm. Edge values must be non-negative. Returns the edges along the shortest
+    // path from `start` to `finish`, or null if there is no such path.
     public static List<GraphEdge> getShortestPathBetweenGraphNodes(GraphNode start, GraphNode finish) {
-        Map<GraphNode, GraphEdgePath> shortestPathsMap = new HashMap<GraphNode, GraphEdgePath>();
-        Queue<GraphNode> queue = new ArrayDeque<GraphNode>();
-        queue.add(start);
-        shortestPathsMap.put(start, new GraphEdgePath());
-        while (!queue.isEmpty()) {
-            GraphNode node = queue.poll();
-            GraphEdgePath path = shortestPathsMap.get(node);
-            for (GraphEdge edge : node.edges) {
-                boolean shouldExplore = !shortestPathsMap.containsKey(edge.to) ||
-                        path.cost + edge.value < shortestPathsMap.get(edge.to).cost;
-                if (shouldExplore) {
-                    GraphEdgePath nextPath = path.newPathByAppendingEdge(edge);
-                    shortestPathsMap.put(edge.to, nextPath);
-                    queue.add(edge.to);
+        return getShortestPathsFromGraphNode(start, Collections.singleton(finish)).get(finish);
+    }
+
+    // O((V + E) log V) - Dijkstra's algorithm from `start` to many finish nodes at once. Returns a map from each
+    // finish node to the edges along its shortest path from `start`, or to null if there is no such path. A single
+    // search answers every finish node, which is much cheaper than calling `getShortestPathBetweenGraphNodes` once
+    // per finish node.
+    //
+    // Nodes are numbered as we discover them, so that distances, predecessor edges, and heap positions can live in
+    // arrays indexed by that number. Each node is settled exactly once, in order of distance from `start`, and we
+    // stop as soon as every finish node is settled. Only the last edge of each node's best path is remembered; each
+    // path is built once at the end by walking those edges backward from its finish node.
+    public static Map<GraphNode, List<GraphEdge>> getShortestPathsFromGraphNode(GraphNode start,
+                                                                               Collection<GraphNode> finishes) {
+        Map<GraphNode, Integer> nodeIds = new HashMap<GraphNode, Integer>();
+        List<GraphNode> nodes = new ArrayList<GraphNode>();
+        GraphNodeSearch search = new GraphNodeSearch();
+        Set<GraphNode> unsettledFinishes = new HashSet<GraphNode>(finishes);
+        nodeIds.put(start, 0);
+        nodes.add(start);
+        search.ensureCapacity(1);
+        search.relax(0, 0.0, null);
+        while (!search.heap.isEmpty()) {
+            int node = search.heap.popMin();
+            search.settled[node] = true;
+            unsettledFinishes.remove(nodes.get(node));
+            if (unsettledFinishes.isEmpty()) break;
+            for (GraphEdge edge : nodes.get(node).edges) {
+                Integer neighbor = nodeIds.get(edge.to);
+                if (neighbor == null) {
+                    neighbor = nodes.size();
+                    nodeIds.put(edge.to, neighbor);
+                    nodes.add(edge.to);
+                    search.ensureCapacity(nodes.size());
+                }
+                search.relax(neighbor, search.distances[node] + edge.value, edge);
+            }
+        }
+        Map<GraphNode, List<GraphEdge>> paths = new HashMap<GraphNode, List<GraphEdge>>();
+        for (GraphNode finish : finishes) {
+            Integer id = nodeIds.get(finish);
+            if (id != null && search.settled[id]) {
+                paths.put(finish, reconstructPath(search.predecessorEdges, nodeIds, id));
+            } else {
+                paths.put(finish, null); // there is no path between start and finish.
+            }
+        }
+        return paths;
+    }
+
+    private static List<GraphEdge> reconstructPath(GraphEdge[] predecessorEdges, Map<GraphNode, Integer> nodeIds,
+                                                   int finish) {
+        List<GraphEdge> path = new ArrayList<GraphEdge>();
+        GraphEdge edge = predecessorEdges[finish];
+        while (edge != null) {
+            path.add(edge);
+            edge = predecessorEdges[nodeIds.get(edge.from)];
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    // O((V + E) log V) - Bidirectional Dijkstra for undirected graphs, where every edge a -> b has a matching edge
+    // b -> a of the same value (as in graphs made by `GraphTestUtils.createRandomUndirectedConnectedGraph`). Returns
+    // the same kind of path as `getShortestPathBetweenGraphNodes`, but usually settles far fewer nodes.
+    //
+    // We run one Dijkstra search outward from `start` and another outward from `finish`, each time advancing
+    // whichever frontier is closer to its own origin, so the two grow at about the same rate. Whenever a search
+    // relaxes an edge into a node the other search has already reached, we have found a complete path, and we
+    // remember the cheapest one seen so far. If the two frontiers are at distances a and b from their origins, any
+    // path we have not seen yet must cost at least a + b, so we can stop once a + b is no less than the best path. On
+    // a graph where the number of nodes within distance r grows like r^2, two searches of radius r/2 settle about
+    // half as many nodes as one search of radius r.
+    public static List<GraphEdge> getShortestPathBetweenGraphNodesBidirectional(GraphNode start, GraphNode finish) {
+        if (start == finish) {
+            return new ArrayList<GraphEdge>();
+        }
+        Map<GraphNode, Integer> nodeIds = new HashMap<GraphNode, Integer>();
+        List<GraphNode> nodes = new ArrayList<GraphNode>();
+        GraphNodeSearch forward = new GraphNodeSearch();
+        GraphNodeSearch backward = new GraphNodeSearch();
+        nodeIds.put(start, 0);
+        nodes.add(start);
+        nodeIds.put(finish, 1);
+        nodes.add(finish);
+        forward.ensureCapacity(2);
+        backward.ensureCapacity(2);
+        forward.relax(0, 0.0, null);
+        backward.relax(1, 0.0, null);
+        double bestDistance = Double.POSITIVE_INFINITY;
+        int meetingNode = -1;
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+            double forwardRadius = forward.heap.peekMinKey();
+            double backwardRadius = backward.heap.peekMinKey();
+            if (forwardRadius + backwardRadius >= bestDistance) break;
+            GraphNodeSearch search = forwardRadius <= backwardRadius ? forward : backward;
+            GraphNodeSearch other = search == forward ? backward : forward;
+            int node = search.heap.popMin();
+            search.settled[node] = true;
+            for (GraphEdge edge : nodes.get(node).edges) {
+                Integer neighbor = nodeIds.get(edge.to);
+                if (neighbor == null) {
+                    neighbor = nodes.size();
+                    nodeIds.put(edge.to, neighbor);
+                    nodes.add(edge.to);
+                    forward.ensureCapacity(nodes.size());
+                    backward.ensureCapacity(nodes.size());
+                }
+                double distance = search.distances[node] + edge.value;
+                search.relax(neighbor, distance, edge);
+                if (distance + other.distances[neighbor] < bestDistance) {
+                    bestDistance = distance + other.distances[neighbor];
+                    meetingNode = neighbor;
+                }
+            }
+        }
+        if (meetingNode == -1) {
+            return null; // there is no path between start and finish.
+        }
+        // The forward half of the path is made of edges that lead toward the meeting node. The backward search walked
+        // edges that lead away from `finish`, so for each of those we take the matching edge in the other direction.
+        List<GraphEdge> path = new ArrayList<GraphEdge>();
+        for (GraphEdge edge = forward.predecessorEdges[meetingNode]; edge != null;
+             edge = forward.predecessorEdges[nodeIds.get(edge.from)]) {
+            path.add(edge);
+        }
+        Collections.reverse(path);
+        for (GraphEdge edge = backward.predecessorEdges[meetingNode]; edge != null;
+             edge = backward.predecessorEdges[nodeIds.get(edge.from)]) {
+            path.add(findReverseEdge(edge));
+        }
+        return path;
+    }
+
+    private static GraphEdge findReverseEdge(GraphEdge edge) {
+        GraphEdge reverse = null;
+        for (GraphEdge candidate : edge.to.edges) {
+            if (candidate.to == edge.from && (reverse == null || candidate.value < reverse.value)) {
+                reverse = candidate;
+            }
+        }
+        if (reverse == null) {
+            throw new IllegalArgumentException("Graph is not undirected. There is no edge from " + edge.to.name +
+                    " back to " + edge.from.name);
+        }
+        return reverse;
+    }
+
+    // O((V + E) log V) - Bidirectional Dijkstra on a CSR graph, as above. Since the backward search walks the edges of
+    // the transposed graph, the graph does not need to be undirected.
+    public static int[] getShortestPathBidirectional(CompactGraph graph, int start, int finish) {
+        CompactGraph transpose = graph.transpose();
+        SearchDirection forward = new SearchDirection(graph);
+        SearchDirection backward = new SearchDirection(transpose);
+        forward.relax(start, 0.0, -1);
+        backward.relax(finish, 0.0, -1);
+        double bestDistance = start == finish ? 0.0 : Double.POSITIVE_INFINITY;
+        int meetingNode = start == finish ? start : -1;
+        while (!forward.heap.isEmpty() && !backward.heap.isEmpty()) {
+            double forwardRadius = forward.heap.peekMinKey();
+            double backwardRadius = backward.heap.peekMinKey();
+            if (forwardRadius + backwardRadius >= bestDistance) break;
+            SearchDirection search = forwardRadius <= backwardRadius ? forward : backward;
+            SearchDirection other = search == forward ? backward : forward;
+            int node = search.heap.popMin();
+            search.settled[node] = true;
+            for (int edge = search.graph.offsets[node]; edge < search.graph.offsets[node + 1]; edge++) {
+                int neighbor = search.graph.targets[edge];
+                double distance = search.distances[node] + search.graph.weights[edge];
+                search.relax(neighbor, distance, edge);
+                if (distance + other.distances[neighbor] < bestDistance) {
+                    bestDistance = distance + other.distances[neighbor];
+                    meetingNode = neighbor;
+                }
+            }
+        }
+        if (meetingNode == -1) {
+            return null; // there is no path between start and finish.
+        }
+        int[] forwardHalf = reconstructPath(graph, forward.predecessorEdges, meetingNode);
+        int[] backwardHalf = reconstructPath(transpose, backward.predecessorEdges, meetingNode);
+        int[] path = Arrays.copyOf(forwardHalf, forwardHalf.length + backwardHalf.length);
+        for (int i = 0; i < backwardHalf.length; i++) {
+            // The backward half runs from `finish` to the meeting node in the transpose, so it runs from the meeting
+            // node to `finish` in the original graph once reversed.
+            path[forwardHalf.length + i] = transpose.originalEdge(backwardHalf[backwardHalf.length - 1 - i]);
+        }
+        return path;
+    }
+
+    // Same as above, but runs on the compact (CSR) form of the graph that `start` and `finish` belong to.
+    public static List<GraphEdge> getShortestPathBetweenGraphNodes(CompactGraph graph, GraphNode start,
+                                                                   GraphNode finish) {
+        int[] path = getShortestPath(graph, graph.getNodeId(start), graph.getNodeId(finish));
+        if (path == null) {
+            return null; // there is no path between start and finish.
+        }
+        return graph.toGraphEdges(path);
+    }
+
+    // O((V + E) log V) - Dijkstra's algorithm on a CSR graph with non-negative edge weights. Returns the ids of the
+    // edges along the shortest path from `start` to `finish`, or null if there is no such path.
+    public static int[] getShortestPath(CompactGraph graph, int start, int finish) {
+        double[] distances = new double[graph.numNodes];
+        int[] predecessorEdges = new int[graph.numNodes];
+        runDijkstra(graph, start, new int[] { finish }, distances, predecessorEdges);
+        if (distances[finish] == Double.POSITIVE_INFINITY) {
+            return null; // there is no path between start and finish.
+        }
+        return reconstructPath(graph, predecessorEdges, finish);
+    }
+
+    // O((V + E) log V) - The distance from `start` to every node, or infinity for nodes that `start` cannot reach.
+    public static double[] getShortestDistances(CompactGraph graph, int start) {
+        double[] distances = new double[graph.numNodes];
+        runDijkstra(graph, start, null, distances, null);
+        return distances;
+    }
+
+    // O((V + E) log V) - The full tree of shortest paths from `start` to every node it can reach. Use this instead of
+    // calling `getShortestPath` once per target: the tree answers every target from a single search.
+    public static ShortestPathTree getShortestPathTree(CompactGraph graph, int start) {
+        return getShortestPathTree(graph, start, null);
+    }
+
+    // Same as above, but stops as soon as every node in `targets` is settled. Only the paths to `targets` (and to
+    // nodes closer to `start` than the farthest target) are guaranteed to be in the tree.
+    public static ShortestPathTree getShortestPathTree(CompactGraph graph, int start, int[] targets) {
+        double[] distances = new double[graph.numNodes];
+        int[] predecessorEdges = new int[graph.numNodes];
+        runDijkstra(graph, start, targets, distances, predecessorEdges);
+        return new ShortestPathTree(graph, start, distances, predecessorEdges);
+    }
+
+    // O(S * (V + E) log V) - The cost of the shortest path from every source to every target. table[i][j] is the
+    // distance from sources[i] to targets[j], or infinity if there is no such path. There is one search per source,
+    // each stopping once it has settled every target, and the searches are independent, so they run in parallel.
+    // For many queries on the same static graph, `ContractionHierarchy.getDistanceTable` is much faster.
+    public static double[][] getDistanceTable(final CompactGraph graph, final int[] sources, final int[] targets) {
+        final double[][] table = new double[sources.length][];
+        IntStream.range(0, sources.length).parallel().forEach(new IntConsumer() {
+            @Override
+            public void accept(int i) {
+                double[] distances = new double[graph.numNodes];
+                runDijkstra(graph, sources[i], targets, distances, null);
+                table[i] = new double[targets.length];
+                for (int j = 0; j < targets.length; j++) {
+                    table[i][j] = distances[targets[j]];
+                }
+            }
+        });
+        return table;
+    }
+
+    // Every node is settled at most once, in order of distance from `start`. The heap holds each unsettled node at
+    // most once, and when we find a shorter way to reach a node we lower its key in place. We only remember the edge
+    // we used to reach each node, in `predecessorEdges` if it is not null. Since edge weights are non-negative, a
+    // settled node can never be improved, so we do not need to track which nodes are settled.
+    //
+    // If `targets` is not null, stops once every target is settled. Nodes that were never reached are left with a
+    // distance of infinity and a predecessor edge of -1.
+    static void runDijkstra(CompactGraph graph, int start, int[] targets, double[] distances, int[] predecessorEdges) {
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        if (predecessorEdges != null) {
+            Arrays.fill(predecessorEdges, -1);
+        }
+        boolean[] isUnsettledTarget = null;
+        int numUnsettledTargets = 0;
+        if (targets != null) {
+            isUnsettledTarget = new boolean[graph.numNodes];
+            for (int target : targets) {
+                if (!isUnsettledTarget[target]) {
+                    isUnsettledTarget[target] = true;
+                    numUnsettledTargets++;
+                }
+            }
+        }
+        IndexedMinHeap heap = new IndexedMinHeap(graph.numNodes);
+        distances[start] = 0.0;
+        heap.add(start, 0.0);
+        while (!heap.isEmpty()) {
+            int node = heap.popMin();
+            if (isUnsettledTarget != null && isUnsettledTarget[node]) {
+                isUnsettledTarget[node] = false;
+                if (--numUnsettledTargets == 0) break;
+            }
+            for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+                int neighbor = graph.targets[edge];
+                double distance = distances[node] + graph.weights[edge];
+                if (distance < distances[neighbor]) {
+                    distances[neighbor] = distance;
+                    if (predecessorEdges != null) {
+                        predecessorEdges[neighbor] = edge;
+                    }
+                    if (heap.contains(neighbor)) {
+                        heap.decreaseKey(neighbor, distance);
+                    } else {
+                        heap.add(neighbor, distance);
+                    }
                 }
             }
         }
-        if (shortestPathsMap.containsKey(finish)) {
-            return shortestPathsMap.get(finish).path;
+    }
+
+    // O(path length * log V) - Walk predecessor edges backward from `finish` until we reach a node without one.
+    static int[] reconstructPath(CompactGraph graph, int[] predecessorEdges, int finish) {
+        int length = 0;
+        for (int node = finish; predecessorEdges[node] != -1; node = graph.source(predecessorEdges[node])) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int node = finish; predecessorEdges[node] != -1; node = graph.source(predecessorEdges[node])) {
+            path[--length] = predecessorEdges[node];
         }
-        return null; // there is no path between start and finish.
+        return path;
     }
 
-    private static class GraphEdgePath {
-        List<GraphEdge> path;
-        double cost;
+    // The state of one of the two searches in bidirectional Dijkstra on a CSR graph.
+    private static class SearchDirection {
+        CompactGraph graph;
+        double[] distances;
+        boolean[] settled;
+        int[] predecessorEdges;
+        IndexedMinHeap heap;
+
+        public SearchDirection(CompactGraph graph) {
+            this.graph = graph;
+            distances = new double[graph.numNodes];
+            settled = new boolean[graph.numNodes];
+            predecessorEdges = new int[graph.numNodes];
+            heap = new IndexedMinHeap(graph.numNodes);
+            Arrays.fill(distances, Double.POSITIVE_INFINITY);
+            Arrays.fill(predecessorEdges, -1);
+        }
 
-        public GraphEdgePath() {
-            this(new ArrayList<GraphEdge>(), 0.0);
+        public void relax(int node, double distance, int edge) {
+            if (settled[node] || distance >= distances[node]) return;
+            distances[node] = distance;
+            predecessorEdges[node] = edge;
+            if (heap.contains(node)) {
+                heap.decreaseKey(node, distance);
+            } else {
+                heap.add(node, distance);
+            }
         }
+    }
 
-        private GraphEdgePath(List<GraphEdge> path, double cost) {
-            this.path = path;
-            this.cost = cost;
+    // The state of a Dijkstra search on GraphNodes, indexed by the order in which nodes were discovered. Bidirectional
+    // Dijkstra runs two of these that share one numbering.
+    private static class GraphNodeSearch {
+        double[] distances = new double[0];
+        boolean[] settled = new boolean[0];
+        GraphEdge[] predecessorEdges = new GraphEdge[0];
+        IndexedMinHeap heap = new IndexedMinHeap(0);
+
+        public void ensureCapacity(int capacity) {
+            if (capacity <= distances.length) return;
+            int oldCapacity = distances.length;
+            int newCapacity = Math.max(capacity, 2 * oldCapacity);
+            distances = Arrays.copyOf(distances, newCapacity);
+            settled = Arrays.copyOf(settled, newCapacity);
+            predecessorEdges = Arrays.copyOf(predecessorEdges, newCapacity);
+            heap.ensureCapacity(newCapacity);
+            Arrays.fill(distances, oldCapacity, newCapacity, Double.POSITIVE_INFINITY);
         }
 
-        public GraphEdgePath newPathByAppendingEdge(GraphEdge edge) {
-            List<GraphEdge> newPath = new ArrayList<GraphEdge>(path);
-            newPath.add(edge);
-            double newCost = cost + edge.value;
-            return new GraphEdgePath(newPath, newCost);
+        public void relax(int node, double distance, GraphEdge edge) {
+            if (settled[node] || distance >= distances[node]) return;
+            distances[node] = distance;
+            predecessorEdges[node] = edge;
+            if (heap.contains(node)) {
+                heap.decreaseKey(node, distance);
+            } else {
+                heap.add(node, distance);
+            }
         }
     }
 }
@@ -0,0 +1,203 @@
+package com.cliffcrosland.dijkstra;
+
+import com.cliffcrosland.graph.CompactGraph;
+import com.cliffcrosland.graph.GraphEdge;
+import com.cliffcrosland.graph.GraphNode;
+import com.cliffcrosland.heap.IndexedMinHeap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * A shortest path tree from one start node that stays correct as edge weights change, repairing only the part of the
+ * tree that a change affects instead of rerunning Dijkstra from scratch (in the style of Ramalingam and Reps).
+ *
+ * When edge u -> v gets cheaper, only nodes that can now be reached more cheaply through it change. If it makes v
+ * closer, we lower v's distance and run Dijkstra outward from v alone, which stops as soon as it reaches nodes it
+ * cannot improve.
+ *
+ * When edge u -> v gets more expensive, nothing changes unless it is v's tree edge. If it is, every node in v's
+ * subtree may now be farther away, and no other node is affected. We collect that subtree, give each node in it the
+ * best distance it can get from a single in-edge out of the unaffected part of the tree, and run Dijkstra over the
+ * subtree from those starting guesses.
+ *
+ * Either way the work is proportional to the nodes whose distance changes and their edges, which after a small
+ * change is usually a tiny part of the graph.
+ *
+ * The tree keeps its own copy of the edge weights, so the CSR graph itself is never modified.
+ */
+public class DynamicShortestPathTree {
+    private final CompactGraph graph;
+    private final CompactGraph transpose;
+    private final int start;
+    private final double[] weights;
+    private final double[] distances;
+    private final int[] predecessorEdges;
+    private Map<GraphEdge, Integer> graphEdgeIds;
+
+    // Scratch space for repairs, allocated once.
+    private final IndexedMinHeap heap;
+    private final boolean[] affected;
+    private final IntArrayList affectedNodes = new IntArrayList();
+
+    // O((V + E) log V) - Build the tree of shortest paths from `start` with the graph's current edge weights, which
+    // must be non-negative.
+    public DynamicShortestPathTree(CompactGraph graph, int start) {
+        this.graph = graph;
+        this.transpose = graph.transpose();
+        this.start = start;
+        weights = Arrays.copyOf(graph.weights, graph.numEdges);
+        distances = new double[graph.numNodes];
+        predecessorEdges = new int[graph.numNodes];
+        heap = new IndexedMinHeap(graph.numNodes);
+        affected = new boolean[graph.numNodes];
+        DijkstraShortestPath.runDijkstra(graph, start, null, distances, predecessorEdges);
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    // O(1) - The current weight of `edge`.
+    public double getEdgeWeight(int edge) {
+        return weights[edge];
+    }
+
+    // O(1) - The cost of the shortest path from the start to `node`, or infinity if there is no such path.
+    public double getDistance(int node) {
+        return distances[node];
+    }
+
+    // O(1)
+    public boolean hasPath(int node) {
+        return distances[node] != Double.POSITIVE_INFINITY;
+    }
+
+    // O(path length * log V) - The ids of the edges along the shortest path from the start to `node`, or null if
+    // there is no such path.
+    public int[] getPath(int node) {
+        if (!hasPath(node)) {
+            return null; // there is no path between start and node.
+        }
+        return DijkstraShortestPath.reconstructPath(graph, predecessorEdges, node);
+    }
+
+    // Same as above, but with a `GraphNode` from the graph that the CSR graph was built from.
+    public List<GraphEdge> getPathToGraphNode(GraphNode node) {
+        int[] path = getPath(graph.getNodeId(node));
+        if (path == null) {
+            return null; // there is no path between start and node.
+        }
+        return graph.toGraphEdges(path);
+    }
+
+    // Change the weight of `edge`, which must stay non-negative, and repair the tree. See the class comment for the
+    // cost.
+    public void setEdgeWeight(int edge, double weight) {
+        if (weight < 0.0) {
+            throw new IllegalArgumentException("Edge weights must be non-negative.");
+        }
+        double oldWeight = weights[edge];
+        weights[edge] = weight;
+        if (weight < oldWeight) {
+            repairDecrease(edge);
+        } else if (weight > oldWeight) {
+            repairIncrease(edge);
+        }
+    }
+
+    // O(E) the first time, then the cost of `setEdgeWeight` - Pick up a change that was made to `edge.value`, where
+    // `edge` is from the `Graph` that the CSR graph was built from.
+    public void updateGraphEdge(GraphEdge edge) {
+        if (graphEdgeIds == null) {
+            graphEdgeIds = new HashMap<GraphEdge, Integer>(graph.numEdges * 2);
+            for (int i = 0; i < graph.numEdges; i++) {
+                graphEdgeIds.put(graph.getGraphEdge(i), i);
+            }
+        }
+        Integer id = graphEdgeIds.get(edge);
+        if (id == null) {
+            throw new IllegalArgumentException("Edge is not in the graph.");
+        }
+        setEdgeWeight(id, edge.value);
+    }
+
+    // === Helpers ===
+
+    private void repairDecrease(int edge) {
+        int from = graph.source(edge);
+        int to = graph.targets[edge];
+        double distance = distances[from] + weights[edge];
+        if (distance >= distances[to]) return;
+        distances[to] = distance;
+        predecessorEdges[to] = edge;
+        heap.add(to, distance);
+        propagate();
+    }
+
+    private void repairIncrease(int edge) {
+        int to = graph.targets[edge];
+        if (predecessorEdges[to] != edge) return; // not a tree edge, so no distance depends on it
+
+        // Collect the subtree under `to`: every node whose tree path runs through `edge`.
+        affectedNodes.clear();
+        affectedNodes.add(to);
+        affected[to] = true;
+        for (int i = 0; i < affectedNodes.size(); i++) {
+            int node = affectedNodes.get(i);
+            for (int e = graph.offsets[node]; e < graph.offsets[node + 1]; e++) {
+                int child = graph.targets[e];
+                if (predecessorEdges[child] == e && !affected[child]) {
+                    affected[child] = true;
+                    affectedNodes.add(child);
+                }
+            }
+        }
+
+        // Give each affected node its best distance through a single edge from an unaffected node.
+        for (int i = 0; i < affectedNodes.size(); i++) {
+            int node = affectedNodes.get(i);
+            distances[node] = Double.POSITIVE_INFINITY;
+            predecessorEdges[node] = -1;
+            for (int e = transpose.offsets[node]; e < transpose.offsets[node + 1]; e++) {
+                int parent = transpose.targets[e];
+                if (affected[parent]) continue;
+                int forwardEdge = transpose.originalEdge(e);
+                double distance = distances[parent] + weights[forwardEdge];
+                if (distance < distances[node]) {
+                    distances[node] = distance;
+                    predecessorEdges[node] = forwardEdge;
+                }
+            }
+            if (distances[node] != Double.POSITIVE_INFINITY) {
+                heap.add(node, distances[node]);
+            }
+        }
+        for (int i = 0; i < affectedNodes.size(); i++) {
+            affected[affectedNodes.get(i)] = false;
+        }
+        propagate();
+    }
+
+    // Dijkstra from whatever nodes are in the heap, relaxing edges with the current weights until nothing improves.
+    private void propagate() {
+        while (!heap.isEmpty()) {
+            int node = heap.popMin();
+            for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+                int neighbor = graph.targets[edge];
+                double distance = distances[node] + weights[edge];
+                if (distance < distances[neighbor]) {
+                    distances[neighbor] = distance;
+                    predecessorEdges[neighbor] = edge;
+                    if (heap.contains(neighbor)) {
+                        heap.decreaseKey(neighbor, distance);
+                    } else {
+                        heap.add(neighbor, distance);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.cliffcrosland.dijkstra;
+
+import java.util.Arrays;
+
+/*
+ * A growable list of ints, without boxing each one into an Integer.
+ */
+class IntArrayList {
+    private int size;
+    private int[] values = new int[16];
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, 2 * size);
+        }
+        values[size++] = value;
+    }
+
+    public void addAll(IntArrayList other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(size + other.size, 2 * values.length));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+    }
+
+    public int get(int i) {
+        return values[i];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
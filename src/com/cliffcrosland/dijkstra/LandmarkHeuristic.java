@@ -0,0 +1,89 @@
+package com.cliffcrosland.dijkstra;
+
+import com.cliffcrosland.graph.CompactGraph;
+
+/*
+ * The ALT heuristic for A* (A*, Landmarks, Triangle inequality). It needs no coordinates, only the graph.
+ *
+ * We pick a handful of landmark nodes, and precompute the distance from each landmark to every node and from every node
+ * to each landmark. For a landmark L, the triangle inequality says that d(L, t) <= d(L, v) + d(v, t) and
+ * d(v, L) <= d(v, t) + d(t, L), so
+ *
+ *   d(v, t) >= d(L, t) - d(L, v)   and   d(v, t) >= d(v, L) - d(t, L).
+ *
+ * The estimate is the largest of these lower bounds over all landmarks. Bounds of this form are consistent, so A*
+ * never has to pop a node twice. They are tight when a landmark lies "behind" t as seen from v (or behind v as seen
+ * from t), which is why landmarks are spread out toward the edges of the graph: each new landmark is the node that is
+ * farthest from the landmarks picked so far.
+ *
+ * Preprocessing runs 2 * numLandmarks + 1 Dijkstra searches over the whole graph and stores
+ * 2 * numLandmarks * V distances. Each estimate takes O(numLandmarks).
+ */
+public class LandmarkHeuristic implements AStarHeuristic {
+    private int[] landmarks;
+    private double[][] distancesFromLandmarks; // [landmark][node]
+    private double[][] distancesToLandmarks;   // [landmark][node]
+
+    public LandmarkHeuristic(CompactGraph graph, int numLandmarks) {
+        if (numLandmarks <= 0) {
+            throw new IllegalArgumentException("numLandmarks must be larger than 0");
+        }
+        if (graph.numNodes == 0) {
+            throw new IllegalArgumentException("Graph cannot be empty.");
+        }
+        numLandmarks = Math.min(numLandmarks, graph.numNodes);
+        landmarks = new int[numLandmarks];
+        distancesFromLandmarks = new double[numLandmarks][];
+        distancesToLandmarks = new double[numLandmarks][];
+        CompactGraph transpose = graph.transpose();
+
+        // Start from an arbitrary node, and take the node farthest from it as the first landmark.
+        double[] closestLandmarkDistances = DijkstraShortestPath.getShortestDistances(graph, 0);
+        for (int i = 0; i < numLandmarks; i++) {
+            int landmark = farthestNode(closestLandmarkDistances);
+            landmarks[i] = landmark;
+            distancesFromLandmarks[i] = DijkstraShortestPath.getShortestDistances(graph, landmark);
+            distancesToLandmarks[i] = DijkstraShortestPath.getShortestDistances(transpose, landmark);
+            if (i == 0) {
+                closestLandmarkDistances = distancesFromLandmarks[0].clone();
+            } else {
+                for (int node = 0; node < graph.numNodes; node++) {
+                    closestLandmarkDistances[node] =
+                            Math.min(closestLandmarkDistances[node], distancesFromLandmarks[i][node]);
+                }
+            }
+            closestLandmarkDistances[landmark] = -1.0; // never pick the same landmark twice
+        }
+    }
+
+    // O(numLandmarks)
+    @Override
+    public double estimateDistance(int node, int finish) {
+        double estimate = 0.0;
+        for (int i = 0; i < landmarks.length; i++) {
+            // Infinite distances still give valid bounds: if L reaches v but not t, or t reaches L but v does not,
+            // then v cannot reach t. When both distances are infinite the difference is NaN, and `>` skips it.
+            double bound = distancesFromLandmarks[i][finish] - distancesFromLandmarks[i][node];
+            if (bound > estimate) estimate = bound;
+            bound = distancesToLandmarks[i][node] - distancesToLandmarks[i][finish];
+            if (bound > estimate) estimate = bound;
+        }
+        return estimate;
+    }
+
+    public int[] getLandmarks() {
+        return landmarks.clone();
+    }
+
+    // Unreachable nodes count as infinitely far away, so every part of a disconnected graph eventually gets a
+    // landmark.
+    private static int farthestNode(double[] distances) {
+        int farthest = 0;
+        for (int node = 1; node < distances.length; node++) {
+            if (distances[node] > distances[farthest]) {
+                farthest = node;
+            }
+        }
+        return farthest;
+    }
+}
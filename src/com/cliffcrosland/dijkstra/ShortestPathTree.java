@@ -0,0 +1,60 @@
+package com.cliffcrosland.dijkstra;
+
+import com.cliffcrosland.graph.CompactGraph;
+import com.cliffcrosland.graph.GraphEdge;
+import com.cliffcrosland.graph.GraphNode;
+
+import java.util.List;
+
+/*
+ * The shortest paths from one start node to every node it can reach, as found by a single run of Dijkstra's
+ * algorithm. Each node remembers only the last edge of its shortest path, so the whole tree is two arrays of size V,
+ * and the path to any node is rebuilt on demand by walking those edges backward.
+ *
+ * Made by `DijkstraShortestPath.getShortestPathTree`.
+ */
+public class ShortestPathTree {
+    private final CompactGraph graph;
+    private final int start;
+    private final double[] distances;
+    private final int[] predecessorEdges;
+
+    ShortestPathTree(CompactGraph graph, int start, double[] distances, int[] predecessorEdges) {
+        this.graph = graph;
+        this.start = start;
+        this.distances = distances;
+        this.predecessorEdges = predecessorEdges;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    // O(1) - The cost of the shortest path from the start to `node`, or infinity if there is no such path.
+    public double getDistance(int node) {
+        return distances[node];
+    }
+
+    // O(1)
+    public boolean hasPath(int node) {
+        return distances[node] != Double.POSITIVE_INFINITY;
+    }
+
+    // O(path length * log V) - The ids of the edges along the shortest path from the start to `node`, or null if
+    // there is no such path.
+    public int[] getPath(int node) {
+        if (!hasPath(node)) {
+            return null; // there is no path between start and node.
+        }
+        return DijkstraShortestPath.reconstructPath(graph, predecessorEdges, node);
+    }
+
+    // Same as above, but with a `GraphNode` from the graph that the CSR graph was built from.
+    public List<GraphEdge> getPathToGraphNode(GraphNode node) {
+        int[] path = getPath(graph.getNodeId(node));
+        if (path == null) {
+            return null; // there is no path between start and node.
+        }
+        return graph.toGraphEdges(path);
+    }
+}
@@ -0,0 +1,165 @@
+package com.cliffcrosland.dijkstra;
+
+import com.cliffcrosland.graph.CompactGraph;
+import com.cliffcrosland.graph.GraphEdge;
+import com.cliffcrosland.graph.GraphNode;
+import com.cliffcrosland.heap.IndexedMinHeap;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Reusable arrays for running many Dijkstra queries on the same CSR graph without allocating anything per query.
+ *
+ * `DijkstraShortestPath.getShortestPath` allocates distance, predecessor, and heap arrays of size V on every call,
+ * which for a server answering thousands of queries a second is a steady stream of garbage. A workspace allocates
+ * those arrays once. Instead of clearing them between queries, every query bumps a "generation" counter, and a node's
+ * entries only count if its stamp matches the current generation. So starting a query is O(1), and a query costs time
+ * proportional to the part of the graph it touches, not V.
+ *
+ * A workspace is not thread-safe. Keep one per thread, e.g. in a ThreadLocal.
+ *
+ * Usage:
+ *
+ *     double distance = workspace.search(start, finish);
+ *     if (distance != Double.POSITIVE_INFINITY) {
+ *         int length = workspace.copyPath(finish, pathBuffer);
+ *         ...
+ *     }
+ */
+public class ShortestPathWorkspace {
+    private final CompactGraph graph;
+    private final double[] distances;
+    private final int[] predecessorEdges;
+    private final int[] predecessorNodes;
+    private final boolean[] settled;
+    private final int[] stamps;
+    private final IndexedMinHeap heap;
+    private int generation;
+
+    public ShortestPathWorkspace(CompactGraph graph) {
+        this.graph = graph;
+        distances = new double[graph.numNodes];
+        predecessorEdges = new int[graph.numNodes];
+        predecessorNodes = new int[graph.numNodes];
+        settled = new boolean[graph.numNodes];
+        stamps = new int[graph.numNodes];
+        heap = new IndexedMinHeap(graph.numNodes);
+    }
+
+    public CompactGraph getGraph() {
+        return graph;
+    }
+
+    // O((V + E) log V) in the worst case - Dijkstra's algorithm from `start`, stopping as soon as `finish` is settled.
+    // Returns the cost of the shortest path, or infinity if there is no such path. Afterward, `getDistance`,
+    // `getPathLength`, `copyPath`, and `getPath` describe the path to `finish` and to every node settled before it,
+    // until the next search.
+    public double search(int start, int finish) {
+        startSearch();
+        touch(start);
+        distances[start] = 0.0;
+        heap.add(start, 0.0);
+        while (!heap.isEmpty()) {
+            int node = heap.popMin();
+            settled[node] = true;
+            if (node == finish) break;
+            for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+                int neighbor = graph.targets[edge];
+                double distance = distances[node] + graph.weights[edge];
+                touch(neighbor);
+                if (distance < distances[neighbor]) {
+                    distances[neighbor] = distance;
+                    predecessorEdges[neighbor] = edge;
+                    predecessorNodes[neighbor] = node;
+                    if (heap.contains(neighbor)) {
+                        heap.decreaseKey(neighbor, distance);
+                    } else {
+                        heap.add(neighbor, distance);
+                    }
+                }
+            }
+        }
+        return getDistance(finish);
+    }
+
+    // O(1) - The cost of the shortest path to `node` found by the last search, or infinity if the last search did not
+    // settle `node`.
+    public double getDistance(int node) {
+        if (stamps[node] != generation || !settled[node]) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return distances[node];
+    }
+
+    // O(path length) - The number of edges on the shortest path to `node`, or -1 if there is none.
+    public int getPathLength(int node) {
+        if (getDistance(node) == Double.POSITIVE_INFINITY) {
+            return -1;
+        }
+        int length = 0;
+        for (; predecessorEdges[node] != -1; node = predecessorNodes[node]) {
+            length++;
+        }
+        return length;
+    }
+
+    // O(path length) - Write the ids of the edges on the shortest path to `node` into the front of `path`, and return
+    // how many there are, or -1 if there is no path. `path` must have room for `getPathLength(node)` edges.
+    public int copyPath(int node, int[] path) {
+        int length = getPathLength(node);
+        if (length == -1) {
+            return -1;
+        }
+        if (length > path.length) {
+            throw new IllegalArgumentException("Path of length " + length + " does not fit in an array of length " +
+                    path.length);
+        }
+        for (int i = length; predecessorEdges[node] != -1; node = predecessorNodes[node]) {
+            path[--i] = predecessorEdges[node];
+        }
+        return length;
+    }
+
+    // O(path length) - Same as above, but allocates an array of exactly the right size. Returns null if there is no
+    // path.
+    public int[] getPath(int node) {
+        int length = getPathLength(node);
+        if (length == -1) {
+            return null; // there is no path to node.
+        }
+        int[] path = new int[length];
+        copyPath(node, path);
+        return path;
+    }
+
+    // Same as `DijkstraShortestPath.getShortestPathBetweenGraphNodes`, but reusing this workspace.
+    public List<GraphEdge> getShortestPathBetweenGraphNodes(GraphNode start, GraphNode finish) {
+        int finishId = graph.getNodeId(finish);
+        if (search(graph.getNodeId(start), finishId) == Double.POSITIVE_INFINITY) {
+            return null; // there is no path between start and finish.
+        }
+        return graph.toGraphEdges(getPath(finishId));
+    }
+
+    // === Helpers ===
+
+    // O(1), except once every 2^31 searches - Invalidate every node's entries from the previous search.
+    private void startSearch() {
+        heap.clear();
+        if (generation == Integer.MAX_VALUE) {
+            Arrays.fill(stamps, 0);
+            generation = 0;
+        }
+        generation++;
+    }
+
+    // Give `node` fresh entries if it has not been touched yet in this search.
+    private void touch(int node) {
+        if (stamps[node] == generation) return;
+        stamps[node] = generation;
+        distances[node] = Double.POSITIVE_INFINITY;
+        predecessorEdges[node] = -1;
+        settled[node] = false;
+    }
+}
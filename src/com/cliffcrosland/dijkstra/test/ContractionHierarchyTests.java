@@ -0,0 +1,92 @@
+package com.cliffcrosland.dijkstra.test;
+
+import com.cliffcrosland.dijkstra.ContractionHierarchy;
+import com.cliffcrosland.dijkstra.DijkstraShortestPath;
+import com.cliffcrosland.dijkstra.ShortestPathTree;
+import com.cliffcrosland.graph.CompactGraph;
+import com.cliffcrosland.graph.test.GraphTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class ContractionHierarchyTests {
+
+    public static void stressTest() {
+        for (int i = 0; i < 20; i++) {
+            testCorrectness(300, 1200, 10.0);
+        }
+        System.out.println("DONE. All tests successful.");
+    }
+
+    // Compare contraction hierarchy queries, before and after a round trip through serialization, against plain
+    // Dijkstra on a random directed graph.
+    public static void testCorrectness(int numNodes, int numEdges, double maxEdgeValue) {
+        CompactGraph graph = GraphTestUtils.createRandomCompactGraph(numNodes, numEdges, maxEdgeValue);
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(graph);
+        ContractionHierarchy deserializedHierarchy = serializeAndDeserialize(hierarchy);
+        for (int i = 0; i < 100; i++) {
+            int start = (int) (Math.random() * numNodes);
+            int finish = (int) (Math.random() * numNodes);
+            int[] expected = DijkstraShortestPath.getShortestPath(graph, start, finish);
+            assertSamePathCost(graph, start, finish, expected, hierarchy.getShortestPath(start, finish));
+            assertSamePathCost(graph, start, finish, expected, deserializedHierarchy.getShortestPath(start, finish));
+        }
+        testDistanceTable(graph, hierarchy, 10, 15);
+    }
+
+    // Compare contraction hierarchy and parallel Dijkstra distance tables against single-source shortest path trees.
+    private static void testDistanceTable(CompactGraph graph, ContractionHierarchy hierarchy, int numSources,
+                                          int numTargets) {
+        int[] sources = new int[numSources];
+        int[] targets = new int[numTargets];
+        for (int i = 0; i < numSources; i++) {
+            sources[i] = (int) (Math.random() * graph.numNodes);
+        }
+        for (int j = 0; j < numTargets; j++) {
+            targets[j] = (int) (Math.random() * graph.numNodes);
+        }
+        double[][] hierarchyTable = hierarchy.getDistanceTable(sources, targets);
+        double[][] dijkstraTable = DijkstraShortestPath.getDistanceTable(graph, sources, targets);
+        for (int i = 0; i < numSources; i++) {
+            ShortestPathTree tree = DijkstraShortestPath.getShortestPathTree(graph, sources[i]);
+            for (int j = 0; j < numTargets; j++) {
+                double expected = tree.getDistance(targets[j]);
+                assertSameDistance(expected, hierarchyTable[i][j]);
+                assertSameDistance(expected, dijkstraTable[i][j]);
+                assertSamePathCost(graph, sources[i], targets[j],
+                        DijkstraShortestPath.getShortestPath(graph, sources[i], targets[j]), tree.getPath(targets[j]));
+            }
+        }
+    }
+
+    private static void assertSameDistance(double expected, double actual) {
+        if (expected == actual) return; // covers infinity
+        if (Math.abs(expected - actual) > 1e-9) {
+            throw new RuntimeException("Distance table entry " + actual + " is not the shortest path cost " + expected);
+        }
+    }
+
+    private static ContractionHierarchy serializeAndDeserialize(ContractionHierarchy hierarchy) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            hierarchy.writeTo(out);
+            return ContractionHierarchy.readFrom(new ByteArrayInputStream(out.toByteArray()));
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to serialize contraction hierarchy", e);
+        }
+    }
+
+    private static void assertSamePathCost(CompactGraph graph, int start, int finish, int[] expected, int[] actual) {
+        double cost = expected == null ? Double.POSITIVE_INFINITY : pathCost(graph, expected);
+        GraphTestUtils.assertIsShortestPath(graph, actual, start, finish, cost, "Contraction hierarchy");
+    }
+
+    private static double pathCost(CompactGraph graph, int[] path) {
+        double cost = 0.0;
+        for (int edge : path) {
+            cost += graph.weights[edge];
+        }
+        return cost;
+    }
+}
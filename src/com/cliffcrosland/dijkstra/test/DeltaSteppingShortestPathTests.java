@@ -0,0 +1,39 @@
+package com.cliffcrosland.dijkstra.test;
+
+import com.cliffcrosland.dijkstra.DeltaSteppingShortestPath;
+import com.cliffcrosland.dijkstra.DijkstraShortestPath;
+import com.cliffcrosland.dijkstra.ShortestPathTree;
+import com.cliffcrosland.graph.CompactGraph;
+import com.cliffcrosland.graph.test.GraphTestUtils;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class DeltaSteppingShortestPathTests {
+
+    public static void stressTest() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        for (int i = 0; i < 10; i++) {
+            CompactGraph graph = GraphTestUtils.createRandomCompactGraph(20000, 80000, 10.0);
+            testCorrectness(graph, DeltaSteppingShortestPath.getDefaultDelta(graph), ForkJoinPool.commonPool());
+            testCorrectness(graph, 0.5, pool);
+            testCorrectness(graph, 100.0, pool);
+        }
+        pool.shutdown();
+        System.out.println("DONE. All tests successful.");
+    }
+
+    // Compare delta-stepping distances and shortest path trees against plain Dijkstra.
+    public static void testCorrectness(CompactGraph graph, double delta, ForkJoinPool pool) {
+        int start = (int) (Math.random() * graph.numNodes);
+        double[] expected = DijkstraShortestPath.getShortestDistances(graph, start);
+        ShortestPathTree tree = DeltaSteppingShortestPath.getShortestPathTree(graph, start, delta, pool);
+        for (int node = 0; node < graph.numNodes; node++) {
+            if (expected[node] != tree.getDistance(node)) {
+                throw new RuntimeException("Delta-stepping distance " + tree.getDistance(node) +
+                        " is not the shortest path cost " + expected[node]);
+            }
+            GraphTestUtils.assertIsShortestPath(graph, tree.getPath(node), start, node, expected[node],
+                    "Delta-stepping");
+        }
+    }
+}
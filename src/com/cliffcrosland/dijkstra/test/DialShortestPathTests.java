@@ -0,0 +1,37 @@
+package com.cliffcrosland.dijkstra.test;
+
+import com.cliffcrosland.dijkstra.DialShortestPath;
+import com.cliffcrosland.dijkstra.DijkstraShortestPath;
+import com.cliffcrosland.dijkstra.ShortestPathTree;
+import com.cliffcrosland.graph.CompactGraph;
+import com.cliffcrosland.graph.test.GraphTestUtils;
+
+public class DialShortestPathTests {
+
+    public static void stressTest() {
+        for (int i = 0; i < 100; i++) {
+            testCorrectness(GraphTestUtils.createRandomCompactGraph(1000, 3000, 10, true));
+            testCorrectness(GraphTestUtils.createRandomCompactGraph(1000, 3000, 1000, true));
+            // Not integer weights, so Dial's algorithm should fall back to Dijkstra.
+            testCorrectness(GraphTestUtils.createRandomCompactGraph(1000, 3000, 10, false));
+        }
+        System.out.println("DONE. All tests successful.");
+    }
+
+    // Compare distances and paths from Dial's algorithm against plain Dijkstra.
+    public static void testCorrectness(CompactGraph graph) {
+        int start = (int) (Math.random() * graph.numNodes);
+        int finish = (int) (Math.random() * graph.numNodes);
+        double[] expected = DijkstraShortestPath.getShortestDistances(graph, start);
+        ShortestPathTree tree = DialShortestPath.getShortestPathTree(graph, start);
+        for (int node = 0; node < graph.numNodes; node++) {
+            if (Math.abs(expected[node] - tree.getDistance(node)) > 1e-9 &&
+                    expected[node] != tree.getDistance(node)) {
+                throw new RuntimeException("Dial's algorithm distance " + tree.getDistance(node) +
+                        " is not the shortest path cost " + expected[node]);
+            }
+        }
+        int[] path = DialShortestPath.getShortestPath(graph, start, finish);
+        GraphTestUtils.assertIsShortestPath(graph, path, start, finish, expected[finish], "Dial's algorithm");
+    }
+}
@@ -1,9 +1,14 @@
 package com.cliffcrosland.dijkstra.test;
 
+import com.cliffcrosland.dijkstra.AStarShortestPath;
 import com.cliffcrosland.dijkstra.DijkstraShortestPath;
+import com.cliffcrosland.dijkstra.LandmarkHeuristic;
+import com.cliffcrosland.dijkstra.ShortestPathWorkspace;
+import com.cliffcrosland.graph.CompactGraph;
 import com.cliffcrosland.graph.Graph;
 import com.cliffcrosland.graph.GraphEdge;
 import com.cliffcrosland.graph.GraphNode;
+import com.cliffcrosland.graph.test.GraphTestUtils;
 
 import java.util.*;
 
@@ -40,19 +45,88 @@ public class DijkstraShortestPathTests {
         List<GraphEdge> bruteForceShortestPath = getBruteForceShortestPath(start, finish);
         printPath(bruteForceShortestPath);
 
+        CompactGraph compactGraph = CompactGraph.fromGraph(graph);
+        List<GraphEdge> compactShortestPath =
+                DijkstraShortestPath.getShortestPathBetweenGraphNodes(compactGraph, start, finish);
+        println("Compact graph Dijkstra's shortest path: ");
+        printPath(compactShortestPath);
+        int[] bidirectionalPathIds = DijkstraShortestPath.getShortestPathBidirectional(
+                compactGraph, compactGraph.getNodeId(start), compactGraph.getNodeId(finish));
+        List<GraphEdge> bidirectionalShortestPath =
+                bidirectionalPathIds == null ? null : compactGraph.toGraphEdges(bidirectionalPathIds);
+        println("Compact graph bidirectional Dijkstra's shortest path: ");
+        printPath(bidirectionalShortestPath);
+        List<GraphEdge> aStarShortestPath = AStarShortestPath.getShortestPathBetweenGraphNodes(
+                compactGraph, start, finish, new LandmarkHeuristic(compactGraph, 3));
+        println("A* with landmarks shortest path: ");
+        printPath(aStarShortestPath);
+        // Search once in the other direction first, so that the workspace has stale entries to ignore.
+        ShortestPathWorkspace workspace = new ShortestPathWorkspace(compactGraph);
+        workspace.getShortestPathBetweenGraphNodes(finish, start);
+        List<GraphEdge> workspaceShortestPath = workspace.getShortestPathBetweenGraphNodes(start, finish);
+        println("Workspace Dijkstra's shortest path: ");
+        printPath(workspaceShortestPath);
+        List<GraphNode> finishes = pickRandomKElements(graph.nodes, 5);
+        finishes.add(finish);
+        List<GraphEdge> oneToManyShortestPath =
+                DijkstraShortestPath.getShortestPathsFromGraphNode(start, finishes).get(finish);
+        println("One-to-many Dijkstra's shortest path: ");
+        printPath(oneToManyShortestPath);
+
         if (areConnected(start, finish)) {
             if (totalCost(shortestPath) > totalCost(bruteForceShortestPath)) {
                 throw new RuntimeException("Dijkstra's shortest path has higher cost than the naive brute force shortest path!");
             }
+            assertIsPathWithCost(compactShortestPath, start, finish, totalCost(bruteForceShortestPath));
+            assertIsPathWithCost(bidirectionalShortestPath, start, finish, totalCost(bruteForceShortestPath));
+            assertIsPathWithCost(aStarShortestPath, start, finish, totalCost(bruteForceShortestPath));
+            assertIsPathWithCost(oneToManyShortestPath, start, finish, totalCost(bruteForceShortestPath));
+            assertIsPathWithCost(workspaceShortestPath, start, finish, totalCost(bruteForceShortestPath));
         } else {
             println("The start and finish nodes are NOT connected");
-            if (shortestPath != null) {
+            if (shortestPath != null || compactShortestPath != null || bidirectionalShortestPath != null ||
+                    aStarShortestPath != null || oneToManyShortestPath != null || workspaceShortestPath != null) {
                 throw new RuntimeException("Dijkstra's alg found a path between nodes that are not actually connected! BAD!");
             }
         }
         println("");
     }
 
+    // Bidirectional search on GraphNodes needs an undirected graph, so compare it against one-way Dijkstra on
+    // larger random undirected graphs.
+    public static void stressTestBidirectional() {
+        for (int i = 0; i < 100; i++) {
+            Graph graph = GraphTestUtils.createRandomUndirectedConnectedGraph(200, 4, 10.0);
+            GraphNode start = pickRandomKElements(graph.nodes, 1).get(0);
+            GraphNode finish = pickRandomKElements(graph.nodes, 1).get(0);
+            List<GraphEdge> shortestPath = DijkstraShortestPath.getShortestPathBetweenGraphNodes(start, finish);
+            List<GraphEdge> bidirectionalShortestPath =
+                    DijkstraShortestPath.getShortestPathBetweenGraphNodesBidirectional(start, finish);
+            printPath(bidirectionalShortestPath);
+            assertIsPathWithCost(bidirectionalShortestPath, start, finish, totalCost(shortestPath));
+        }
+        System.out.println("DONE. All tests successful.");
+    }
+
+    private static void assertIsPathWithCost(List<GraphEdge> path, GraphNode start, GraphNode finish, double cost) {
+        if (path == null) {
+            throw new RuntimeException("No path was found between nodes that are connected!");
+        }
+        GraphNode node = start;
+        for (GraphEdge edge : path) {
+            if (edge.from != node) {
+                throw new RuntimeException("Path is not a chain of edges from start to finish!");
+            }
+            node = edge.to;
+        }
+        if (node != finish) {
+            throw new RuntimeException("Path does not end at the finish node!");
+        }
+        if (Math.abs(totalCost(path) - cost) > 1e-9) {
+            throw new RuntimeException("Path cost " + totalCost(path) + " is not the shortest path cost " + cost);
+        }
+    }
+
     private static Graph createRandomGraph(int numNodes, int maxNumEdgesPerNode, double maxEdgeValue) {
         Set<GraphNode> allNodes = new HashSet<GraphNode>();
         for (int i = 0; i < numNodes; i++) {
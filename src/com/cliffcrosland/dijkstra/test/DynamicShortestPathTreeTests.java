@@ -0,0 +1,51 @@
+package com.cliffcrosland.dijkstra.test;
+
+import com.cliffcrosland.dijkstra.DijkstraShortestPath;
+import com.cliffcrosland.dijkstra.DynamicShortestPathTree;
+import com.cliffcrosland.graph.CompactGraph;
+import com.cliffcrosland.graph.test.GraphTestUtils;
+
+public class DynamicShortestPathTreeTests {
+
+    public static void stressTest() {
+        for (int i = 0; i < 20; i++) {
+            testCorrectness(500, 2000, 10.0, 200);
+        }
+        System.out.println("DONE. All tests successful.");
+    }
+
+    // Change random edge weights up and down, and after each change compare the repaired tree against Dijkstra from
+    // scratch on a graph with the new weights.
+    public static void testCorrectness(int numNodes, int numEdges, double maxEdgeValue, int numUpdates) {
+        CompactGraph graph = GraphTestUtils.createRandomCompactGraph(numNodes, numEdges, maxEdgeValue);
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        double[] weights = new double[numEdges];
+        // Edges are numbered by source node, so rebuilding from the CSR arrays in edge id order keeps edge ids stable.
+        for (int edge = 0; edge < numEdges; edge++) {
+            from[edge] = graph.source(edge);
+            to[edge] = graph.targets[edge];
+            weights[edge] = graph.weights[edge];
+        }
+        int start = (int) (Math.random() * numNodes);
+        DynamicShortestPathTree tree = new DynamicShortestPathTree(graph, start);
+        for (int i = 0; i < numUpdates; i++) {
+            int edge = (int) (Math.random() * numEdges);
+            weights[edge] = Math.random() < 0.5 ? weights[edge] * Math.random() : weights[edge] + Math.random() * 5.0;
+            tree.setEdgeWeight(edge, weights[edge]);
+            assertSameDistances(new CompactGraph(numNodes, from, to, weights), start, tree);
+        }
+    }
+
+    private static void assertSameDistances(CompactGraph graph, int start, DynamicShortestPathTree tree) {
+        double[] expected = DijkstraShortestPath.getShortestDistances(graph, start);
+        for (int node = 0; node < graph.numNodes; node++) {
+            if (expected[node] != tree.getDistance(node) && Math.abs(expected[node] - tree.getDistance(node)) > 1e-9) {
+                throw new RuntimeException("Repaired distance " + tree.getDistance(node) +
+                        " is not the shortest path cost " + expected[node]);
+            }
+            GraphTestUtils.assertIsShortestPath(graph, tree.getPath(node), start, node, expected[node],
+                    "Repaired tree");
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.cliffcrosland.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Immutable compressed sparse row (CSR) representation of a directed, weighted graph.
+ *
+ * Nodes are dense int ids in [0, numNodes). Edges are dense int ids in [0, numEdges), grouped by source node: the
+ * out-edges of node `u` are the edge ids in the half-open range [offsets[u], offsets[u + 1]), and edge `e` leads to
+ * node targets[e] with cost weights[e].
+ *
+ * Compared to `Graph`, where every node and edge is its own object and adjacency lives in a `HashSet`, the whole
+ * structure here is four flat arrays. That costs (V + 1) * 4 + E * 12 bytes instead of a few hundred bytes per edge,
+ * and walking the out-edges of a node reads consecutive memory instead of chasing pointers through hash buckets.
+ *
+ * When built from a `Graph`, the original `GraphNode` and `GraphEdge` objects are remembered so that results computed
+ * on ids can be translated back.
+ */
+public class CompactGraph {
+
+    public final int numNodes;
+    public final int numEdges;
+    public final int[] offsets;
+    public final int[] targets;
+    public final double[] weights;
+
+    private final GraphNode[] nodes;
+    private final Map<GraphNode, Integer> nodeIds;
+    private final GraphEdge[] edges;
+    // Only set on transposed graphs: the id of the forward edge that each reversed edge came from.
+    private final int[] originalEdges;
+    private CompactGraph transpose;
+
+    // O(V + E) - Build a CSR graph from a list of directed edges, where edge i goes from from[i] to to[i] with cost
+    // weights[i]. Edges are renumbered so that they are grouped by source node.
+    public CompactGraph(int numNodes, int[] from, int[] to, double[] weights) {
+        this(numNodes, from, to, weights, null, null, null, null);
+    }
+
+    private CompactGraph(int numNodes, int[] from, int[] to, double[] edgeWeights, GraphNode[] nodes,
+                         Map<GraphNode, Integer> nodeIds, GraphEdge[] edges, int[] originalEdges) {
+        if (from.length != to.length || from.length != edgeWeights.length) {
+            throw new IllegalArgumentException("from, to, and weights must all have the same length.");
+        }
+        this.numNodes = numNodes;
+        this.numEdges = from.length;
+        this.nodes = nodes;
+        this.nodeIds = nodeIds;
+
+        // Counting sort of the edges by source node.
+        offsets = new int[numNodes + 1];
+        for (int i = 0; i < numEdges; i++) {
+            assertValidNodeId(from[i]);
+            assertValidNodeId(to[i]);
+            offsets[from[i] + 1]++;
+        }
+        for (int u = 0; u < numNodes; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+        targets = new int[numEdges];
+        weights = new double[numEdges];
+        GraphEdge[] sortedEdges = edges == null ? null : new GraphEdge[numEdges];
+        int[] sortedOriginalEdges = originalEdges == null ? null : new int[numEdges];
+        int[] next = new int[numNodes];
+        System.arraycopy(offsets, 0, next, 0, numNodes);
+        for (int i = 0; i < numEdges; i++) {
+            int e = next[from[i]]++;
+            targets[e] = to[i];
+            weights[e] = edgeWeights[i];
+            if (sortedEdges != null) sortedEdges[e] = edges[i];
+            if (sortedOriginalEdges != null) sortedOriginalEdges[e] = originalEdges[i];
+        }
+        this.edges = sortedEdges;
+        this.originalEdges = sortedOriginalEdges;
+    }
+
+    // O(V + E) - Build a CSR graph from the adjacency sets of the nodes in `graph`. Every edge must lead to a node that
+    // is in `graph.nodes`.
+    public static CompactGraph fromGraph(Graph graph) {
+        GraphNode[] nodes = new GraphNode[graph.nodes.size()];
+        Map<GraphNode, Integer> nodeIds = new HashMap<GraphNode, Integer>(graph.nodes.size() * 2);
+        int numEdges = 0;
+        for (GraphNode node : graph.nodes) {
+            nodeIds.put(node, nodeIds.size());
+            nodes[nodeIds.size() - 1] = node;
+            numEdges += node.edges.size();
+        }
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        double[] weights = new double[numEdges];
+        GraphEdge[] edges = new GraphEdge[numEdges];
+        int i = 0;
+        for (int u = 0; u < nodes.length; u++) {
+            for (GraphEdge edge : nodes[u].edges) {
+                Integer v = nodeIds.get(edge.to);
+                if (v == null) {
+                    throw new IllegalArgumentException("Edge leads to a node that is not in the graph.");
+                }
+                from[i] = u;
+                to[i] = v;
+                weights[i] = edge.value;
+                edges[i] = edge;
+                i++;
+            }
+        }
+        return new CompactGraph(nodes.length, from, to, weights, nodes, nodeIds, edges, null);
+    }
+
+    // O(1)
+    public int outDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    // O(log V) - Binary search for the node whose range of out-edges contains `edge`. This lets algorithms keep a
+    // single predecessor edge per node instead of a predecessor edge and a predecessor node.
+    public int source(int edge) {
+        if (edge < 0 || edge >= numEdges) {
+            throw new IllegalArgumentException("No edge with id " + edge);
+        }
+        int lo = 0;
+        int hi = numNodes - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= edge) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    // O(V + E) the first time, O(1) afterward - The graph with every edge reversed. Edge ids in the transpose are not
+    // the same as in this graph; use `originalEdge` to translate them back.
+    public CompactGraph transpose() {
+        if (transpose == null) {
+            int[] from = new int[numEdges];
+            int[] to = new int[numEdges];
+            int[] original = new int[numEdges];
+            for (int u = 0; u < numNodes; u++) {
+                for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                    from[e] = targets[e];
+                    to[e] = u;
+                    original[e] = originalEdge(e);
+                }
+            }
+            transpose = new CompactGraph(numNodes, from, to, weights, nodes, nodeIds, edges, original);
+        }
+        return transpose;
+    }
+
+    // O(1) - For a transposed graph, the id of the edge in the original graph that `edge` is the reverse of. For any
+    // other graph, `edge` itself.
+    public int originalEdge(int edge) {
+        return originalEdges == null ? edge : originalEdges[edge];
+    }
+
+    // O(1) - Look up the id of a node from the `Graph` this was built from.
+    public int getNodeId(GraphNode node) {
+        Integer id = nodeIds == null ? null : nodeIds.get(node);
+        if (id == null) {
+            throw new IllegalArgumentException("Node is not in the graph.");
+        }
+        return id;
+    }
+
+    // O(1) - The node from the `Graph` this was built from.
+    public GraphNode getGraphNode(int node) {
+        if (nodes == null) {
+            throw new IllegalStateException("Graph was not built from GraphNodes.");
+        }
+        return nodes[node];
+    }
+
+    // O(1) - The edge from the `Graph` this was built from. For a transposed graph, this is the original (forward)
+    // edge.
+    public GraphEdge getGraphEdge(int edge) {
+        if (edges == null) {
+            throw new IllegalStateException("Graph was not built from GraphEdges.");
+        }
+        return edges[edge];
+    }
+
+    // O(n) - Translate a list of edge ids back to the `GraphEdge`s this graph was built from.
+    public List<GraphEdge> toGraphEdges(int[] edgeIds) {
+        List<GraphEdge> ret = new ArrayList<GraphEdge>(edgeIds.length);
+        for (int edge : edgeIds) {
+            ret.add(getGraphEdge(edge));
+        }
+        return ret;
+    }
+
+    private void assertValidNodeId(int node) {
+        if (node < 0 || node >= numNodes) {
+            throw new IllegalArgumentException("Node id " + node + " is not in the range [0, " + numNodes + ").");
+        }
+    }
+}
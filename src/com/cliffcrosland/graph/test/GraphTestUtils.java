@@ -1,5 +1,6 @@
 package com.cliffcrosland.graph.test;
 
+import com.cliffcrosland.graph.CompactGraph;
 import com.cliffcrosland.graph.Graph;
 import com.cliffcrosland.graph.GraphEdge;
 import com.cliffcrosland.graph.GraphNode;
@@ -80,6 +81,49 @@ public class GraphTestUtils {
         return UUID.randomUUID().toString().substring(0, 7);
     }
 
+    // A directed graph whose edges join uniformly random nodes, with weights uniform in [0, maxEdgeValue).
+    public static CompactGraph createRandomCompactGraph(int numNodes, int numEdges, double maxEdgeValue) {
+        return createRandomCompactGraph(numNodes, numEdges, maxEdgeValue, false);
+    }
+
+    // Same as above, but with `integerWeights` the weights are whole numbers in [0, maxEdgeValue].
+    public static CompactGraph createRandomCompactGraph(int numNodes, int numEdges, double maxEdgeValue,
+                                                        boolean integerWeights) {
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        double[] weights = new double[numEdges];
+        for (int i = 0; i < numEdges; i++) {
+            from[i] = (int) (Math.random() * numNodes);
+            to[i] = (int) (Math.random() * numNodes);
+            weights[i] = integerWeights
+                    ? (int) (Math.random() * (maxEdgeValue + 1))
+                    : Math.random() * maxEdgeValue;
+        }
+        return new CompactGraph(numNodes, from, to, weights);
+    }
+
+    // Check a path of edge ids found by the algorithm called `name` against the known shortest path cost from `start`
+    // to `finish`, which is infinite if there is no path. A null path means the algorithm found none.
+    public static void assertIsShortestPath(CompactGraph graph, int[] path, int start, int finish, double cost,
+                                            String name) {
+        if ((path == null) != (cost == Double.POSITIVE_INFINITY)) {
+            throw new RuntimeException(name + " disagrees with Dijkstra about whether a path exists!");
+        }
+        if (path == null) return;
+        int node = start;
+        double pathCost = 0.0;
+        for (int edge : path) {
+            if (graph.source(edge) != node) {
+                throw new RuntimeException(name + " path is not a chain of edges from start to finish!");
+            }
+            node = graph.targets[edge];
+            pathCost += graph.weights[edge];
+        }
+        if (node != finish || Math.abs(pathCost - cost) > 1e-9) {
+            throw new RuntimeException(name + " path does not reach the finish at the shortest path cost!");
+        }
+    }
+
     public static Set<GraphEdge> bruteForceFindMinSpanningTree(Graph graph) {
         List<Set<GraphEdge>> trees = new ArrayList<>();
         recursiveBruteForceFindAllTrees(
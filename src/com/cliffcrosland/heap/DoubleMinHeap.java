@@ -0,0 +1,197 @@
+package com.cliffcrosland.heap;
+
+import java.util.Arrays;
+
+/*
+ * A min-heap of double keys, each with a long value riding along, stored in two parallel primitive arrays.
+ *
+ * `MinHeap<T>` is general, but every entry is an object, every comparison is a virtual `compareTo` call, and its
+ * sifts recurse. When all we need to order by is a number, this heap does the same job with no objects at all: an
+ * entry is just a slot in `keys` and the same slot in `values`, comparisons are `<` on doubles, and sifts are loops
+ * that carry the moving entry in locals and only write it once it has found its place.
+ *
+ * The value is whatever the caller needs to get back when the key pops out: an id, an index into an array of edges,
+ * or two ints packed into a long. Unlike `IndexedMinHeap`, values do not need to be distinct or dense, and the same
+ * value can be in the heap many times.
+ *
+ * The heap can also be d-ary instead of binary, with 4 or 8 children per node instead of 2. On a heap too big for the
+ * cache, every level of a sift is a cache miss, and a binary heap has log2(n) levels. A 4-ary heap has half as many
+ * levels and an 8-ary heap a third as many, at the cost of comparing more children per level. Since a node's children
+ * sit next to each other in the arrays, comparing them is one or two cache lines of work, not d misses. We shift
+ * every entry over by d - 1 slots so that each group of children starts at an index that is a multiple of d: with
+ * d = 8, the 8 keys of a group are exactly one 64-byte cache line (as far as the JVM's array layout lets us line
+ * them up). Popping gets faster; adding gets faster too, since sifting up only compares against one parent per level.
+ * See `HeapBenchmark`.
+ */
+public class DoubleMinHeap {
+    private static final int DEFAULT_CAPACITY = 16;
+    public static final int DEFAULT_ARITY = 2;
+
+    private final int arity;
+    private final int arityShift; // log2(arity)
+    private final int offset; // entry i of the heap is at index offset + i of the arrays
+    private double[] keys;
+    private long[] values;
+    private int size;
+
+    public DoubleMinHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DoubleMinHeap(int capacity) {
+        this(capacity, DEFAULT_ARITY);
+    }
+
+    // A heap where every node has `arity` children. Arity must be 2, 4, or 8.
+    public DoubleMinHeap(int capacity, int arity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative.");
+        }
+        if (arity != 2 && arity != 4 && arity != 8) {
+            throw new IllegalArgumentException("Arity must be 2, 4, or 8.");
+        }
+        this.arity = arity;
+        arityShift = Integer.numberOfTrailingZeros(arity);
+        offset = arity - 1;
+        keys = new double[offset + capacity];
+        values = new long[offset + capacity];
+    }
+
+    // O(n) - Build a heap out of the first `size` entries of `keys` and `values` all at once (see `MinHeap.makeHeap`
+    // for why this is linear). The arrays are copied, not kept.
+    public DoubleMinHeap(double[] keys, long[] values, int size) {
+        this(keys, values, size, DEFAULT_ARITY);
+    }
+
+    // Same as above, with `arity` children per node.
+    public DoubleMinHeap(double[] keys, long[] values, int size, int arity) {
+        this(Math.max(size, DEFAULT_CAPACITY), arity);
+        addAll(keys, values, size);
+    }
+
+    // O(n) - Add every entry in the first `count` entries of `keys` and `values` at once, then restore the heap in one
+    // pass. Cheaper than `count` calls to `add` when `count` is large compared to the heap's size.
+    public void addAll(double[] keys, long[] values, int count) {
+        if (count < 0 || count > keys.length || count > values.length) {
+            throw new IllegalArgumentException("Count " + count + " does not fit in the given arrays.");
+        }
+        ensureCapacity(size + count);
+        System.arraycopy(keys, 0, this.keys, offset + size, count);
+        System.arraycopy(values, 0, this.values, offset + size, count);
+        size += count;
+        heapify();
+    }
+
+    // O(1)
+    public int size() {
+        return size;
+    }
+
+    // O(1)
+    public int getArity() {
+        return arity;
+    }
+
+    // O(1)
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // O(1) - Remove every entry. Keeps the arrays, so the heap can be refilled without allocating.
+    public void clear() {
+        size = 0;
+    }
+
+    // O(1)
+    public double peekMinKey() {
+        assertNotEmpty("Cannot find min.");
+        return keys[offset];
+    }
+
+    // O(1) - The value of the entry with the smallest key.
+    public long peekMin() {
+        assertNotEmpty("Cannot find min.");
+        return values[offset];
+    }
+
+    // O(log n), or O(d log_d n) for a d-ary heap - Remove the entry with the smallest key and return its value. Read
+    // its key first with `peekMinKey` if you need it.
+    public long popMin() {
+        assertNotEmpty("Cannot pop min.");
+        long min = values[offset];
+        size--;
+        if (size > 0) {
+            siftDown(0, keys[offset + size], values[offset + size]);
+        }
+        return min;
+    }
+
+    // O(log n), or O(log_d n) for a d-ary heap, amortized over the occasional doubling of the arrays.
+    public void add(double key, long value) {
+        if (offset + size == keys.length) {
+            ensureCapacity(size + 1);
+        }
+        siftUp(size++, key, value);
+    }
+
+    // O(n) - Make room for `capacity` entries. Does nothing if there already is room.
+    public void ensureCapacity(int capacity) {
+        if (offset + capacity <= keys.length) return;
+        int newCapacity = offset + Math.max(capacity, Math.max(2 * (keys.length - offset), DEFAULT_CAPACITY));
+        keys = Arrays.copyOf(keys, newCapacity);
+        values = Arrays.copyOf(values, newCapacity);
+    }
+
+    // === Helpers ===
+
+    private void heapify() {
+        for (int i = (size - 2) >> arityShift; i >= 0; i--) {
+            siftDown(i, keys[offset + i], values[offset + i]);
+        }
+    }
+
+    // Move the hole at heap entry `i` up until `key` fits in it, then put the entry there.
+    private void siftUp(int i, double key, long value) {
+        while (i > 0) {
+            int parent = (i - 1) >>> arityShift;
+            if (keys[offset + parent] <= key) break;
+            keys[offset + i] = keys[offset + parent];
+            values[offset + i] = values[offset + parent];
+            i = parent;
+        }
+        keys[offset + i] = key;
+        values[offset + i] = value;
+    }
+
+    // Move the hole at heap entry `i` down until `key` fits in it, then put the entry there. Works with array indices
+    // directly: the children of the entry at index `at` start at index `(at - offset) * arity + arity`.
+    private void siftDown(int i, double key, long value) {
+        int at = offset + i;
+        int end = offset + size;
+        while (true) {
+            int firstChild = (at - offset + 1) << arityShift;
+            if (firstChild >= end) break;
+            int lastChild = Math.min(firstChild + arity, end);
+            int minChild = firstChild;
+            double minKey = keys[firstChild];
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (keys[child] < minKey) {
+                    minKey = keys[child];
+                    minChild = child;
+                }
+            }
+            if (minKey >= key) break;
+            keys[at] = minKey;
+            values[at] = values[minChild];
+            at = minChild;
+        }
+        keys[at] = key;
+        values[at] = value;
+    }
+
+    private void assertNotEmpty(String message) {
+        if (isEmpty()) {
+            throw new RuntimeException(message + " The heap is empty.");
+        }
+    }
+}
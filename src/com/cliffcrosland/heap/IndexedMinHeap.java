@@ -0,0 +1,214 @@
+package com.cliffcrosland.heap;
+
+import java.util.Arrays;
+
+/*
+ * A binary min-heap of dense int ids in [0, capacity), each with a double key. A position map from id to heap index
+ * lets us find any id in the heap in O(1), so its key can be lowered in place with `decreaseKey` instead of adding a
+ * second, stale copy of it.
+ *
+ * This is the priority queue that Dijkstra's and Prim's algorithms want: each node is in the heap at most once, so the
+ * heap has size O(V) instead of O(E), and nothing is allocated after construction.
+ *
+ * The same position map lets us raise a key (`increaseKey`), set it either way (`changeKey`), or take any id out of
+ * the heap (`remove`), all in O(log n): find the id's slot, put the new key or the last entry there, and sift it
+ * whichever way it needs to go.
+ */
+public class IndexedMinHeap {
+    private int[] heap;       // heap index -> id
+    private int[] positions;  // id -> heap index, or -1 if the id is not in the heap
+    private double[] keys;    // id -> key
+    private int size;
+
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        positions = new int[capacity];
+        keys = new double[capacity];
+        Arrays.fill(positions, -1);
+    }
+
+    // O(capacity) - Grow the heap so that it can hold ids in [0, capacity). Does nothing if it already can.
+    public void ensureCapacity(int capacity) {
+        if (capacity <= positions.length) return;
+        int oldCapacity = positions.length;
+        heap = Arrays.copyOf(heap, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        Arrays.fill(positions, oldCapacity, capacity, -1);
+    }
+
+    // O(n) - Remove every id from the heap. Only touches the ids that are in the heap, so a large heap that is only
+    // ever partly full is cheap to reuse.
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    // O(1)
+    public int size() {
+        return size;
+    }
+
+    // O(1)
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // O(1)
+    public boolean contains(int id) {
+        assertValidId(id);
+        return positions[id] != -1;
+    }
+
+    // O(1) - The key of an id that is in the heap.
+    public double getKey(int id) {
+        assertContains(id);
+        return keys[id];
+    }
+
+    // O(1)
+    public int peekMin() {
+        if (isEmpty()) {
+            throw new RuntimeException("Cannot find min. The heap is empty.");
+        }
+        return heap[0];
+    }
+
+    // O(1)
+    public double peekMinKey() {
+        return keys[peekMin()];
+    }
+
+    // O(log n) - Remove the id with the smallest key and return it.
+    public int popMin() {
+        if (isEmpty()) {
+            throw new RuntimeException("Cannot pop min. The heap is empty.");
+        }
+        int min = heap[0];
+        size--;
+        positions[min] = -1;
+        if (size > 0) {
+            heap[0] = heap[size];
+            positions[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    // O(log n)
+    public void add(int id, double key) {
+        assertValidId(id);
+        if (positions[id] != -1) {
+            throw new IllegalArgumentException("Id " + id + " is already in the heap.");
+        }
+        keys[id] = key;
+        heap[size] = id;
+        positions[id] = size;
+        size++;
+        siftUp(size - 1);
+    }
+
+    // O(log n) - Lower the key of an id that is already in the heap.
+    public void decreaseKey(int id, double key) {
+        assertContains(id);
+        if (key > keys[id]) {
+            throw new IllegalArgumentException("New key " + key + " is greater than the current key " + keys[id]);
+        }
+        keys[id] = key;
+        siftUp(positions[id]);
+    }
+
+    // O(log n) - Raise the key of an id that is already in the heap.
+    public void increaseKey(int id, double key) {
+        assertContains(id);
+        if (key < keys[id]) {
+            throw new IllegalArgumentException("New key " + key + " is less than the current key " + keys[id]);
+        }
+        keys[id] = key;
+        siftDown(positions[id]);
+    }
+
+    // O(log n) - Set the key of an id that is already in the heap, whether it goes up or down.
+    public void changeKey(int id, double key) {
+        assertContains(id);
+        double oldKey = keys[id];
+        keys[id] = key;
+        if (key < oldKey) {
+            siftUp(positions[id]);
+        } else {
+            siftDown(positions[id]);
+        }
+    }
+
+    // O(log n) - Take an id out of the heap. Returns false if it was not in the heap.
+    public boolean remove(int id) {
+        if (!contains(id)) {
+            return false;
+        }
+        int i = positions[id];
+        positions[id] = -1;
+        size--;
+        if (i < size) {
+            // Fill the hole with the last entry, which may belong above or below it.
+            int last = heap[size];
+            heap[i] = last;
+            positions[last] = i;
+            if (keys[last] < keys[id]) {
+                siftUp(i);
+            } else {
+                siftDown(i);
+            }
+        }
+        return true;
+    }
+
+    // === Helpers ===
+
+    private void siftUp(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int parentId = heap[parent];
+            if (keys[parentId] <= key) break;
+            heap[i] = parentId;
+            positions[parentId] = i;
+            i = parent;
+        }
+        heap[i] = id;
+        positions[id] = i;
+    }
+
+    private void siftDown(int i) {
+        int id = heap[i];
+        double key = keys[id];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]) {
+                child++;
+            }
+            int childId = heap[child];
+            if (keys[childId] >= key) break;
+            heap[i] = childId;
+            positions[childId] = i;
+            i = child;
+        }
+        heap[i] = id;
+        positions[id] = i;
+    }
+
+    private void assertValidId(int id) {
+        if (id < 0 || id >= positions.length) {
+            throw new IllegalArgumentException("Id " + id + " is not in the range [0, " + positions.length + ").");
+        }
+    }
+
+    private void assertContains(int id) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("Id " + id + " is not in the heap.");
+        }
+    }
+}
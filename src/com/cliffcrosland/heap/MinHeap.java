@@ -6,7 +6,7 @@ import java.util.List;
 /**
  * Created by cliftoncrosland on 5/13/15.
  */
-public class MinHeap<T extends Comparable> {
+public class MinHeap<T extends Comparable<? super T>> implements MinPriorityQueue<T> {
     private ArrayList<T> heap;
 
     public MinHeap() {
@@ -23,11 +23,13 @@ public class MinHeap<T extends Comparable> {
     }
 
     // O(1)
+    @Override
     public T peekMin() {
         return heap.get(0);
     }
 
     // O(log n)
+    @Override
     public T popMin() {
         T min = heap.get(0);
         swap(heap, 0, heap.size() - 1);
@@ -37,15 +39,22 @@ public class MinHeap<T extends Comparable> {
     }
 
     // O(log n)
+    @Override
     public void add(T item) {
         heap.add(item);
         heapifyUpward(heap, heap.size() - 1);
     }
 
+    @Override
     public int size() {
         return heap.size();
     }
 
+    @Override
+    public boolean isEmpty() {
+        return heap.isEmpty();
+    }
+
     // A heap can clearly be created in O(n log n) time, but we can do better. The `makeHeap` algorithm below creates a
     // heap in O(n) time. Proof via amortized analysis:
     //
@@ -0,0 +1,19 @@
+package com.cliffcrosland.heap;
+
+/*
+ * A queue of comparable items that always hands back the smallest one first. `MinHeap` and `PairingHeap` both
+ * implement it, so code that only adds and pops can pick whichever one is faster for its workload.
+ */
+public interface MinPriorityQueue<T extends Comparable<? super T>> {
+    // The smallest item, without removing it.
+    T peekMin();
+
+    // Remove the smallest item and return it.
+    T popMin();
+
+    void add(T item);
+
+    int size();
+
+    boolean isEmpty();
+}
@@ -0,0 +1,152 @@
+package com.cliffcrosland.heap;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ * A concurrent priority queue for many threads adding and polling at once, which gives up a little accuracy to avoid a
+ * global lock: `poll` returns one of the smallest items, not always the smallest.
+ *
+ * Every heap in this package is single-threaded, and putting one behind a lock makes every thread wait in line for
+ * that lock, however many cores there are. A MultiQueue (Rihani, Sanders, and Dementiev) is instead a set of c * T
+ * ordinary heaps, or "shards", for T threads and a small constant c (2 is typical), each with its own lock:
+ * - add: put the item in a random shard. If its lock is taken, try another random shard instead of waiting.
+ * - poll: pick two random shards, and pop from whichever has the smaller min. Each shard publishes its current min in
+ *   a volatile field, so comparing the two takes no locks.
+ * With many more shards than threads, two threads rarely want the same lock, so throughput grows with the number of
+ * threads.
+ *
+ * Rank error: picking the better of two random shards (the "power of two choices") keeps the shards' mins close to
+ * the global min. With n = c * T shards, the item `poll` returns is, in expectation, among the O(n) smallest items in
+ * the queue, and with high probability among the O(n log n) smallest, no matter how long the queue runs (Alistarh et
+ * al., "The Power of Choice in Priority Scheduling", 2017). Popping from one random shard instead would let the error
+ * grow without bound. Algorithms that tolerate processing items a little out of order, like a job scheduler or
+ * label-correcting shortest paths, trade that error for scalability.
+ *
+ * Other guarantees: every item added is polled exactly once, if the queue is drained. `poll` returns null only if the
+ * queue was empty at some moment during the call; with other threads adding at the same time, an item may arrive just
+ * after. `size` is exact when no operations are running.
+ */
+public class MultiQueue<T extends Comparable<? super T>> {
+    public static final int DEFAULT_SHARDS_PER_THREAD = 2;
+
+    private final Shard<T>[] shards;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private static class Shard<T extends Comparable<? super T>> {
+        final ReentrantLock lock = new ReentrantLock();
+        final MinHeap<T> heap = new MinHeap<T>();
+        volatile T min; // the heap's current min, or null if the heap is empty
+
+        // Call with the lock held.
+        void publishMin() {
+            min = heap.isEmpty() ? null : heap.peekMin();
+        }
+    }
+
+    // A queue for up to `numThreads` threads, with DEFAULT_SHARDS_PER_THREAD shards per thread.
+    public MultiQueue(int numThreads) {
+        this(numThreads, DEFAULT_SHARDS_PER_THREAD);
+    }
+
+    // A queue with `numThreads * shardsPerThread` shards. More shards per thread means less contention but a larger
+    // rank error.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public MultiQueue(int numThreads, int shardsPerThread) {
+        if (numThreads < 1 || shardsPerThread < 1) {
+            throw new IllegalArgumentException("Number of threads and shards per thread must be positive.");
+        }
+        shards = new Shard[Math.max(numThreads * shardsPerThread, 2)];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard<T>();
+        }
+    }
+
+    // O(log n) expected, where n is the size of a shard.
+    public void add(T item) {
+        if (item == null) {
+            throw new IllegalArgumentException("Cannot add null to the queue.");
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Shard<T> shard = shards[random.nextInt(shards.length)];
+        while (!shard.lock.tryLock()) {
+            shard = shards[random.nextInt(shards.length)];
+        }
+        try {
+            shard.heap.add(item);
+            size.incrementAndGet(); // before the item is visible, so that `size` never goes negative
+            shard.publishMin();
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // O(log n) expected - Remove and return one of the smallest items (see the class comment), or null if the queue
+    // is empty.
+    public T poll() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Shard<T> shard = shards[random.nextInt(shards.length)];
+            Shard<T> other = shards[random.nextInt(shards.length)];
+            T min = shard.min;
+            T otherMin = other.min;
+            if (min == null || (otherMin != null && otherMin.compareTo(min) < 0)) {
+                shard = other;
+                min = otherMin;
+            }
+            if (min == null) {
+                // Both shards were empty. The queue may be nearly empty, so look through all of them before giving up.
+                if (size.get() == 0) return null;
+                T item = pollAnyShard();
+                if (item != null || size.get() == 0) return item;
+                continue;
+            }
+            if (!shard.lock.tryLock()) continue; // someone else is using this shard, so pick again
+            try {
+                if (shard.heap.isEmpty()) continue; // emptied since we read its min
+                T item = shard.heap.popMin();
+                shard.publishMin();
+                size.decrementAndGet();
+                return item;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    // O(1) - The number of items in the queue. Exact when no other thread is adding or polling.
+    public int size() {
+        return size.get();
+    }
+
+    // O(1)
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // O(1)
+    public int getNumShards() {
+        return shards.length;
+    }
+
+    // === Helpers ===
+
+    // Pop from the first non-empty shard, waiting for its lock. Returns null if every shard was empty.
+    private T pollAnyShard() {
+        for (Shard<T> shard : shards) {
+            if (shard.min == null) continue;
+            shard.lock.lock();
+            try {
+                if (shard.heap.isEmpty()) continue;
+                T item = shard.heap.popMin();
+                shard.publishMin();
+                size.decrementAndGet();
+                return item;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return null;
+    }
+}
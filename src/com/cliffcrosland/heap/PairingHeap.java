@@ -0,0 +1,216 @@
+package com.cliffcrosland.heap;
+
+/*
+ * A pairing heap: a heap-ordered tree where each node can have any number of children, and every operation is built
+ * out of one primitive, "link": given two trees, make the one with the larger root the first child of the other. That
+ * is O(1), and so are:
+ * - add: link the new item, as a one-node tree, with the root.
+ * - meld: link the two roots.
+ * - decreaseKey: cut the node's subtree out of the tree, lower its key, and link it with the root. Its subtree is
+ *   still heap-ordered, since only its root got smaller.
+ *
+ * All the real work is in popMin. Removing the root leaves its children as a list of trees, possibly a very long one,
+ * and we link them back into one tree in two passes: first link them in pairs from left to right, then link the
+ * resulting trees from right to left into one. The pairing pass halves the number of trees that have to be looked at
+ * next time, and is what makes popMin O(log n) amortized. (The exact amortized cost of decreaseKey is famously
+ * subtle: it is o(log n), and in practice it is about as cheap as the O(1) link it does.)
+ *
+ * Compared to a binary heap, adds and decreaseKeys do almost nothing, so this tends to win on workloads like
+ * Dijkstra's on dense graphs, where decreaseKeys far outnumber pops. Melding two heaps is O(1) instead of O(n), which
+ * makes it cheap to combine per-thread queues.
+ *
+ * To call decreaseKey, keep the `Handle` that `insert` returns for the item.
+ */
+public class PairingHeap<T extends Comparable<? super T>> implements MinPriorityQueue<T> {
+    private Handle<T> root;
+    private int size;
+    private Owner owner = new Owner();
+
+    // Which heap a handle is in, so that decreaseKey can reject a handle from another heap. Each heap has an Owner,
+    // and every handle points to the Owner of the heap it was inserted into. Melding moves handles without visiting
+    // them, so instead it points the other heap's Owner at this one's, and gives the other heap a fresh Owner. A
+    // handle's heap is then the Owner at the end of its chain of `parent` links, as in union-find.
+    private static class Owner {
+        private Owner parent;
+    }
+
+    // A node of the tree. `prev` is the previous sibling, or the parent for the first child.
+    public static class Handle<T> {
+        private T item;
+        private Handle<T> child;
+        private Handle<T> next;
+        private Handle<T> prev;
+        private Owner owner;
+        private boolean removed;
+
+        private Handle(T item) {
+            this.item = item;
+        }
+
+        public T getItem() {
+            return item;
+        }
+    }
+
+    // O(1)
+    @Override
+    public T peekMin() {
+        if (isEmpty()) {
+            throw new RuntimeException("Cannot find min. The heap is empty.");
+        }
+        return root.item;
+    }
+
+    // O(log n) amortized
+    @Override
+    public T popMin() {
+        if (isEmpty()) {
+            throw new RuntimeException("Cannot pop min. The heap is empty.");
+        }
+        Handle<T> min = root;
+        root = mergePairs(min.child);
+        if (root != null) {
+            root.prev = null;
+        }
+        size--;
+        min.child = null;
+        min.removed = true;
+        return min.item;
+    }
+
+    // O(1)
+    @Override
+    public void add(T item) {
+        insert(item);
+    }
+
+    // O(1) - Same as `add`, but returns a handle to the item for `decreaseKey`.
+    public Handle<T> insert(T item) {
+        Handle<T> node = new Handle<T>(item);
+        node.owner = owner;
+        root = root == null ? node : link(root, node);
+        size++;
+        return node;
+    }
+
+    // O(1), o(log n) amortized - Replace the item at `handle`, which must still be in this heap, with an item that
+    // compares no greater.
+    public void decreaseKey(Handle<T> handle, T smallerItem) {
+        if (handle.removed) {
+            throw new IllegalArgumentException("Item is no longer in the heap.");
+        }
+        if (findOwner(handle) != owner) {
+            throw new IllegalArgumentException("Item is in a different heap.");
+        }
+        if (smallerItem.compareTo(handle.item) > 0) {
+            throw new IllegalArgumentException("New item " + smallerItem + " is greater than the current item " +
+                    handle.item);
+        }
+        handle.item = smallerItem;
+        if (handle == root) return;
+        // Cut the handle's subtree out of its sibling list.
+        if (handle.prev.child == handle) {
+            handle.prev.child = handle.next;
+        } else {
+            handle.prev.next = handle.next;
+        }
+        if (handle.next != null) {
+            handle.next.prev = handle.prev;
+        }
+        handle.next = null;
+        handle.prev = null;
+        root = link(root, handle);
+    }
+
+    // O(1) - Move every item in `other` into this heap, leaving `other` empty. Handles into `other` stay valid and now
+    // belong to this heap.
+    public void meld(PairingHeap<T> other) {
+        if (other == this || other.root == null) return;
+        root = root == null ? other.root : link(root, other.root);
+        size += other.size;
+        other.owner.parent = owner;
+        other.owner = new Owner();
+        other.root = null;
+        other.size = 0;
+    }
+
+    // O(1)
+    @Override
+    public int size() {
+        return size;
+    }
+
+    // O(1)
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // === Helpers ===
+
+    // Follow the handle's chain of Owners to the end, then point the handle and every Owner on the way straight at it.
+    // The chain is only as long as the number of melds since the handle was last looked up, and is O(1) after.
+    private static Owner findOwner(Handle<?> handle) {
+        Owner end = handle.owner;
+        while (end.parent != null) {
+            end = end.parent;
+        }
+        Owner current = handle.owner;
+        while (current != end) {
+            Owner next = current.parent;
+            current.parent = end;
+            current = next;
+        }
+        handle.owner = end;
+        return end;
+    }
+
+    // Link two roots, returning the new root. The other becomes its first child.
+    private Handle<T> link(Handle<T> a, Handle<T> b) {
+        if (b.item.compareTo(a.item) < 0) {
+            Handle<T> temp = a;
+            a = b;
+            b = temp;
+        }
+        b.prev = a;
+        b.next = a.child;
+        if (a.child != null) {
+            a.child.prev = b;
+        }
+        a.child = b;
+        a.next = null;
+        a.prev = null;
+        return a;
+    }
+
+    // Two-pass pairing of a sibling list, done with loops so that a root with a million children does not overflow the
+    // stack. Returns the single remaining root.
+    private Handle<T> mergePairs(Handle<T> first) {
+        if (first == null) return null;
+        // First pass: link siblings in pairs, left to right, building a list of the results that is linked backward
+        // through `prev` so that the second pass can walk it right to left.
+        Handle<T> last = null;
+        while (first != null) {
+            Handle<T> a = first;
+            Handle<T> b = a.next;
+            first = b == null ? null : b.next;
+            a.next = null;
+            Handle<T> pair = a;
+            if (b != null) {
+                b.next = null;
+                pair = link(a, b);
+            }
+            pair.prev = last;
+            last = pair;
+        }
+        // Second pass: link the pairs right to left into one tree.
+        Handle<T> result = last;
+        last = last.prev;
+        while (last != null) {
+            Handle<T> previous = last.prev;
+            result = link(last, result);
+            last = previous;
+        }
+        return result;
+    }
+}
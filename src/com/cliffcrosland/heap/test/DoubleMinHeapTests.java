@@ -0,0 +1,83 @@
+package com.cliffcrosland.heap.test;
+
+import com.cliffcrosland.heap.DoubleMinHeap;
+
+import java.util.Arrays;
+
+public class DoubleMinHeapTests {
+
+    public static void stressTest() {
+        for (int arity = 2; arity <= 8; arity *= 2) {
+            for (int i = 0; i < 10; i++) {
+                testRandomAddsAndPops(1000, arity);
+                testHeapify(1000, arity);
+            }
+        }
+        testEmptyHeap();
+        System.out.println("DONE. All tests successful.");
+    }
+
+    // Interleave adds and pops, checking every pop against a sorted copy of what should be in the heap.
+    private static void testRandomAddsAndPops(int numOperations, int arity) {
+        DoubleMinHeap heap = new DoubleMinHeap(1, arity);
+        double[] expected = new double[numOperations];
+        int expectedSize = 0;
+        for (int i = 0; i < numOperations; i++) {
+            if (expectedSize > 0 && Math.random() < 0.4) {
+                Arrays.sort(expected, 0, expectedSize);
+                double key = heap.peekMinKey();
+                long value = heap.popMin();
+                if (key != expected[0] || Double.longBitsToDouble(value) != key) {
+                    throw new RuntimeException("Expected min " + expected[0] + ", but got " + key);
+                }
+                expected[0] = expected[--expectedSize];
+            } else {
+                // Small integer keys, so that there are plenty of duplicates.
+                double key = (int) (Math.random() * 50);
+                heap.add(key, Double.doubleToLongBits(key));
+                expected[expectedSize++] = key;
+            }
+            if (heap.size() != expectedSize) {
+                throw new RuntimeException("Expected size " + expectedSize + ", but got " + heap.size());
+            }
+        }
+    }
+
+    private static void testHeapify(int size, int arity) {
+        double[] keys = new double[size];
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = Math.random();
+            values[i] = i;
+        }
+        DoubleMinHeap heap = new DoubleMinHeap(keys, values, size / 2, arity);
+        heap.addAll(Arrays.copyOfRange(keys, size / 2, size), Arrays.copyOfRange(values, size / 2, size),
+                size - size / 2);
+        double[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < size; i++) {
+            double key = heap.peekMinKey();
+            long value = heap.popMin();
+            if (key != sorted[i] || keys[(int) value] != key) {
+                throw new RuntimeException("Expected min " + sorted[i] + ", but got " + key);
+            }
+        }
+        if (!heap.isEmpty()) {
+            throw new RuntimeException("Heap should be empty.");
+        }
+    }
+
+    private static void testEmptyHeap() {
+        DoubleMinHeap heap = new DoubleMinHeap(0);
+        try {
+            heap.popMin();
+        } catch (RuntimeException e) {
+            heap.add(1.0, 7);
+            if (heap.popMin() != 7) {
+                throw new RuntimeException("Expected value 7.");
+            }
+            return;
+        }
+        throw new RuntimeException("Popping an empty heap should throw.");
+    }
+}
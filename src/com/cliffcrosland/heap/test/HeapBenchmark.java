@@ -0,0 +1,109 @@
+package com.cliffcrosland.heap.test;
+
+import com.cliffcrosland.heap.DoubleMinHeap;
+import com.cliffcrosland.heap.MinHeap;
+import com.cliffcrosland.heap.MinPriorityQueue;
+import com.cliffcrosland.heap.PairingHeap;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/*
+ * Times filling a heap with random keys and then popping all of them, for `MinHeap`, `PairingHeap`,
+ * `java.util.PriorityQueue`, and `DoubleMinHeap` with 2, 4, and 8 children per node. Each heap sees the same keys.
+ * Run with the number of entries as the first argument (default 10 million), and give the JVM enough heap for the
+ * boxed versions, e.g. -Xmx4g.
+ *
+ * Each heap is run a few times and the best time is reported, so that JIT warmup does not count against whichever
+ * heap happens to go first.
+ */
+public class HeapBenchmark {
+    private static final int NUM_TRIALS = 3;
+
+    public static void main(String[] args) {
+        int numEntries = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+        double[] keys = new double[numEntries];
+        Random random = new Random(42);
+        for (int i = 0; i < numEntries; i++) {
+            keys[i] = random.nextDouble();
+        }
+        System.out.println("Adding and popping " + numEntries + " random keys. Best of " + NUM_TRIALS + " (ms):");
+        report("MinHeap<Double>", new Runnable() {
+            @Override
+            public void run() {
+                benchmarkMinPriorityQueue(new MinHeap<Double>(), keys);
+            }
+        });
+        report("PairingHeap<Double>", new Runnable() {
+            @Override
+            public void run() {
+                benchmarkMinPriorityQueue(new PairingHeap<Double>(), keys);
+            }
+        });
+        report("PriorityQueue<Double>", new Runnable() {
+            @Override
+            public void run() {
+                benchmarkPriorityQueue(keys);
+            }
+        });
+        for (int arity = 2; arity <= 8; arity *= 2) {
+            final int finalArity = arity;
+            report("DoubleMinHeap, arity " + arity, new Runnable() {
+                @Override
+                public void run() {
+                    benchmarkDoubleMinHeap(keys, finalArity);
+                }
+            });
+        }
+    }
+
+    private static void report(String name, Runnable benchmark) {
+        long best = Long.MAX_VALUE;
+        for (int trial = 0; trial < NUM_TRIALS; trial++) {
+            long start = System.nanoTime();
+            benchmark.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.println(String.format("  %-24s %8d", name, best / 1000000));
+    }
+
+    private static void benchmarkMinPriorityQueue(MinPriorityQueue<Double> heap, double[] keys) {
+        for (double key : keys) {
+            heap.add(key);
+        }
+        double previous = Double.NEGATIVE_INFINITY;
+        while (!heap.isEmpty()) {
+            previous = assertSorted(previous, heap.popMin());
+        }
+    }
+
+    private static void benchmarkPriorityQueue(double[] keys) {
+        PriorityQueue<Double> heap = new PriorityQueue<Double>();
+        for (double key : keys) {
+            heap.add(key);
+        }
+        double previous = Double.NEGATIVE_INFINITY;
+        while (!heap.isEmpty()) {
+            previous = assertSorted(previous, heap.poll());
+        }
+    }
+
+    private static void benchmarkDoubleMinHeap(double[] keys, int arity) {
+        DoubleMinHeap heap = new DoubleMinHeap(16, arity);
+        for (int i = 0; i < keys.length; i++) {
+            heap.add(keys[i], i);
+        }
+        double previous = Double.NEGATIVE_INFINITY;
+        while (!heap.isEmpty()) {
+            previous = assertSorted(previous, heap.peekMinKey());
+            heap.popMin();
+        }
+    }
+
+    private static double assertSorted(double previous, double key) {
+        if (key < previous) {
+            throw new RuntimeException("Heap popped " + key + " after " + previous);
+        }
+        return key;
+    }
+}
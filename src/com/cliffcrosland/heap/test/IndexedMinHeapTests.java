@@ -0,0 +1,76 @@
+package com.cliffcrosland.heap.test;
+
+import com.cliffcrosland.heap.IndexedMinHeap;
+
+public class IndexedMinHeapTests {
+
+    public static void stressTest() {
+        for (int i = 0; i < 10; i++) {
+            testRandomOperations(200, 5000);
+        }
+        System.out.println("DONE. All tests successful.");
+    }
+
+    // Run random adds, pops, key changes, and removes against a plain array of keys, where NaN means "not in the heap",
+    // and check that the heap always agrees with a linear scan.
+    private static void testRandomOperations(int capacity, int numOperations) {
+        IndexedMinHeap heap = new IndexedMinHeap(capacity);
+        double[] expected = new double[capacity];
+        for (int id = 0; id < capacity; id++) {
+            expected[id] = Double.NaN;
+        }
+        int expectedSize = 0;
+        for (int i = 0; i < numOperations; i++) {
+            int id = (int) (Math.random() * capacity);
+            double key = Math.random() * 100;
+            double operation = Math.random();
+            if (Double.isNaN(expected[id])) {
+                if (heap.contains(id) || heap.remove(id)) {
+                    throw new RuntimeException("Id " + id + " should not be in the heap.");
+                }
+                heap.add(id, key);
+                expected[id] = key;
+                expectedSize++;
+            } else if (operation < 0.2) {
+                double smaller = expected[id] * Math.random();
+                heap.decreaseKey(id, smaller);
+                expected[id] = smaller;
+            } else if (operation < 0.4) {
+                double larger = expected[id] + key;
+                heap.increaseKey(id, larger);
+                expected[id] = larger;
+            } else if (operation < 0.6) {
+                heap.changeKey(id, key);
+                expected[id] = key;
+            } else if (operation < 0.8) {
+                if (!heap.remove(id)) {
+                    throw new RuntimeException("Id " + id + " should have been removed.");
+                }
+                expected[id] = Double.NaN;
+                expectedSize--;
+            } else {
+                int min = heap.popMin();
+                if (Double.isNaN(expected[min]) || expected[min] != findMinKey(expected)) {
+                    throw new RuntimeException("Popped id " + min + " does not have the min key.");
+                }
+                expected[min] = Double.NaN;
+                expectedSize--;
+            }
+            if (heap.size() != expectedSize) {
+                throw new RuntimeException("Expected size " + expectedSize + ", but got " + heap.size());
+            }
+            if (!heap.isEmpty() && heap.peekMinKey() != findMinKey(expected)) {
+                throw new RuntimeException("Expected min key " + findMinKey(expected) + ", but got " +
+                        heap.peekMinKey());
+            }
+        }
+    }
+
+    private static double findMinKey(double[] keys) {
+        double min = Double.POSITIVE_INFINITY;
+        for (double key : keys) {
+            if (key < min) min = key;
+        }
+        return min;
+    }
+}
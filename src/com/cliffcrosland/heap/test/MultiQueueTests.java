@@ -0,0 +1,105 @@
+package com.cliffcrosland.heap.test;
+
+import com.cliffcrosland.heap.MultiQueue;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class MultiQueueTests {
+
+    public static void stressTest() {
+        testConcurrentAddsAndPolls(8, 200000);
+        testRankError(4, 100000);
+        System.out.println("DONE. All tests successful.");
+    }
+
+    // Threads add disjoint ranges of items while other threads poll. Every item must come out exactly once.
+    private static void testConcurrentAddsAndPolls(final int numThreads, final int numItems) {
+        final MultiQueue<Integer> queue = new MultiQueue<Integer>(numThreads);
+        final AtomicIntegerArray timesPolled = new AtomicIntegerArray(numItems);
+        Thread[] threads = new Thread[2 * numThreads];
+        for (int t = 0; t < numThreads; t++) {
+            final int first = t;
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int item = first; item < numItems; item += numThreads) {
+                        queue.add(item);
+                    }
+                }
+            });
+            threads[numThreads + t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < numItems / numThreads / 2; i++) {
+                        Integer item = queue.poll();
+                        if (item != null) {
+                            timesPolled.incrementAndGet(item);
+                        }
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        Integer item;
+        while ((item = queue.poll()) != null) {
+            timesPolled.incrementAndGet(item);
+        }
+        for (int i = 0; i < numItems; i++) {
+            if (timesPolled.get(i) != 1) {
+                throw new RuntimeException("Item " + i + " was polled " + timesPolled.get(i) + " times.");
+            }
+        }
+        if (!queue.isEmpty()) {
+            throw new RuntimeException("Queue should be empty, but has size " + queue.size());
+        }
+    }
+
+    // Add 0..n-1 in random order, then poll everything. The item polled at step i would be i in an exact queue, so
+    // the difference is its rank error, which should stay within a small multiple of the number of shards.
+    private static void testRankError(int numThreads, int numItems) {
+        MultiQueue<Integer> queue = new MultiQueue<Integer>(numThreads);
+        int[] items = new int[numItems];
+        for (int i = 0; i < numItems; i++) {
+            items[i] = i;
+        }
+        for (int i = numItems - 1; i > 0; i--) {
+            int j = (int) (Math.random() * (i + 1));
+            int temp = items[i];
+            items[i] = items[j];
+            items[j] = temp;
+        }
+        for (int item : items) {
+            queue.add(item);
+        }
+        boolean[] polled = new boolean[numItems];
+        int smallestRemaining = 0;
+        long totalRankError = 0;
+        for (int i = 0; i < numItems; i++) {
+            int item = queue.poll();
+            // The rank error is the number of smaller items still in the queue.
+            int rankError = 0;
+            for (int smaller = smallestRemaining; smaller < item && rankError <= 10 * queue.getNumShards(); smaller++) {
+                if (!polled[smaller]) rankError++;
+            }
+            polled[item] = true;
+            while (smallestRemaining < numItems && polled[smallestRemaining]) {
+                smallestRemaining++;
+            }
+            totalRankError += rankError;
+        }
+        double meanRankError = (double) totalRankError / numItems;
+        if (meanRankError > 2 * queue.getNumShards()) {
+            throw new RuntimeException("Mean rank error " + meanRankError + " is too large for " +
+                    queue.getNumShards() + " shards.");
+        }
+    }
+}
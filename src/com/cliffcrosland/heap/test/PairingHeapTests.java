@@ -0,0 +1,157 @@
+package com.cliffcrosland.heap.test;
+
+import com.cliffcrosland.heap.MinHeap;
+import com.cliffcrosland.heap.MinPriorityQueue;
+import com.cliffcrosland.heap.PairingHeap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class PairingHeapTests {
+
+    public static void stressTest() {
+        for (int i = 0; i < 10; i++) {
+            testAddsAndPops(new PairingHeap<Integer>(), 2000);
+            testAddsAndPops(new MinHeap<Integer>(), 2000);
+            testDecreaseKey(2000);
+            testMeld(1000);
+            testHandleOwnership(100);
+        }
+        testManyChildren(1000000);
+        System.out.println("DONE. All tests successful.");
+    }
+
+    // Interleave adds and pops through the shared interface, checking every pop against a sorted list.
+    private static void testAddsAndPops(MinPriorityQueue<Integer> queue, int numOperations) {
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < numOperations; i++) {
+            if (!expected.isEmpty() && Math.random() < 0.4) {
+                Collections.sort(expected);
+                int min = queue.popMin();
+                if (min != expected.remove(0)) {
+                    throw new RuntimeException("Popped " + min + ", which is not the min.");
+                }
+            } else {
+                int item = (int) (Math.random() * 100);
+                queue.add(item);
+                expected.add(item);
+            }
+            if (queue.size() != expected.size() || queue.isEmpty() != expected.isEmpty()) {
+                throw new RuntimeException("Expected size " + expected.size() + ", but got " + queue.size());
+            }
+        }
+    }
+
+    private static void testDecreaseKey(int numItems) {
+        PairingHeap<Integer> heap = new PairingHeap<Integer>();
+        List<PairingHeap.Handle<Integer>> handles = new ArrayList<PairingHeap.Handle<Integer>>();
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < numItems; i++) {
+            int item = (int) (Math.random() * 10000);
+            handles.add(heap.insert(item));
+        }
+        // Pop a few first, so that the tree has some shape before the decreaseKeys.
+        for (int i = 0; i < numItems / 10; i++) {
+            heap.popMin();
+        }
+        for (int i = 0; i < numItems; i++) {
+            PairingHeap.Handle<Integer> handle = handles.get((int) (Math.random() * numItems));
+            try {
+                heap.decreaseKey(handle, handle.getItem() - (int) (Math.random() * 1000));
+            } catch (IllegalArgumentException e) {
+                // The handle's item was already popped.
+            }
+        }
+        while (!heap.isEmpty()) {
+            expected.add(heap.popMin());
+        }
+        List<Integer> sorted = new ArrayList<Integer>(expected);
+        Collections.sort(sorted);
+        if (!sorted.equals(expected)) {
+            throw new RuntimeException("Items did not pop in order after decreaseKey.");
+        }
+    }
+
+    private static void testMeld(int numItems) {
+        PairingHeap<Integer> a = new PairingHeap<Integer>();
+        PairingHeap<Integer> b = new PairingHeap<Integer>();
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < numItems; i++) {
+            int item = (int) (Math.random() * 10000);
+            (Math.random() < 0.5 ? a : b).add(item);
+            expected.add(item);
+        }
+        expected.remove(a.popMin());
+        expected.remove(b.popMin());
+        a.meld(b);
+        if (!b.isEmpty() || a.size() != numItems - 2) {
+            throw new RuntimeException("Meld should move every item into the first heap.");
+        }
+        Collections.sort(expected);
+        for (int item : expected) {
+            int min = a.popMin();
+            if (min != item) {
+                throw new RuntimeException("Expected " + item + ", but popped " + min);
+            }
+        }
+    }
+
+    // decreaseKey must reject handles from another heap, including that heap's root, and accept handles that a meld
+    // moved into this heap.
+    private static void testHandleOwnership(int numItems) {
+        PairingHeap<Integer> a = new PairingHeap<Integer>();
+        PairingHeap<Integer> b = new PairingHeap<Integer>();
+        PairingHeap<Integer> c = new PairingHeap<Integer>();
+        List<PairingHeap.Handle<Integer>> bHandles = new ArrayList<PairingHeap.Handle<Integer>>();
+        for (int i = 0; i < numItems; i++) {
+            a.add(i);
+            bHandles.add(b.insert(i));
+            c.add(i);
+        }
+        for (PairingHeap.Handle<Integer> handle : bHandles) {
+            try {
+                a.decreaseKey(handle, handle.getItem() - 1);
+                throw new RuntimeException("decreaseKey accepted a handle from another heap.");
+            } catch (IllegalArgumentException e) {
+                // Expected.
+            }
+        }
+        // Meld twice, so that b's handles have to follow a chain of melds to find their heap.
+        a.meld(b);
+        c.meld(a);
+        for (PairingHeap.Handle<Integer> handle : bHandles) {
+            c.decreaseKey(handle, handle.getItem() - numItems);
+        }
+        for (int i = 0; i < numItems; i++) {
+            if (c.popMin() != i - numItems) {
+                throw new RuntimeException("Expected " + (i - numItems));
+            }
+        }
+        if (c.size() != 2 * numItems) {
+            throw new RuntimeException("Expected size " + 2 * numItems + ", but got " + c.size());
+        }
+        // b is empty now, but its new items must still be told apart from c's.
+        PairingHeap.Handle<Integer> handle = b.insert(0);
+        try {
+            c.decreaseKey(handle, -1);
+            throw new RuntimeException("decreaseKey accepted a handle inserted into a heap after it was melded.");
+        } catch (IllegalArgumentException e) {
+            // Expected.
+        }
+    }
+
+    // A root with a huge number of children must not overflow the stack when popped.
+    private static void testManyChildren(int numItems) {
+        PairingHeap<Integer> heap = new PairingHeap<Integer>();
+        heap.add(-1);
+        for (int i = 0; i < numItems; i++) {
+            heap.add(i);
+        }
+        for (int i = -1; i < numItems; i++) {
+            if (heap.popMin() != i) {
+                throw new RuntimeException("Expected " + i);
+            }
+        }
+    }
+}
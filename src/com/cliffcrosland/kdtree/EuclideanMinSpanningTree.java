@@ -0,0 +1,260 @@
+package com.cliffcrosland.kdtree;
+
+import com.cliffcrosland.unionfind.UnionFind;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * The min spanning tree of a set of points, where every pair of points is joined by an edge as long as the straight
+ * line between them, without ever building those n^2 edges.
+ *
+ * We run Boruvka's algorithm (see `BoruvkaMinSpanningTree`): in each round, every component finds the shortest edge
+ * leaving it, and all of those edges are added at once. The shortest edge leaving a component is just the closest
+ * pair of points with one point inside it and one outside, so each round is a batch of nearest-neighbor queries in a
+ * k-d tree: for each point, find the nearest point that is in a different component.
+ *
+ * Two things keep those queries fast, even late in the algorithm when a component may hold half the points:
+ * - Before each round, every subtree of the k-d tree is labeled with a component if all of its points are in that
+ *   component. A query skips any subtree labeled with its own component, since nothing in it can be an answer.
+ * - A component only wants its single shortest edge, so a query only looks for points closer than the best edge its
+ *   component has found so far, and skips any subtree whose bounding box is farther away than that.
+ *
+ * `KDTree` stores points as linked nodes and does not know their indices, and its subtrees cannot carry component
+ * labels, so we build our own k-d tree here: an array of point indices, where every subtree is a contiguous range of
+ * that array, with a bounding box per subtree. Runtime in low dimensions is around O(n log^2 n).
+ */
+public class EuclideanMinSpanningTree {
+    // Subtrees with at most this many points are not split further.
+    private static final int LEAF_SIZE = 8;
+
+    // Returns the n - 1 edges of the Euclidean min spanning tree of `points`, as pairs of indices into `points`. Every
+    // point must have the same number of dimensions.
+    public static int[][] findMinSpanningTree(List<double[]> points) {
+        int[][] ret = new int[Math.max(points.size() - 1, 0)][];
+        if (points.isEmpty()) {
+            return ret;
+        }
+        IndexTree tree = new IndexTree(points);
+        int n = points.size();
+        UnionFind components = new UnionFind(n);
+        int[] pointComponents = new int[n];
+        double[] bestDistances = new double[n];
+        int[] bestFrom = new int[n];
+        int[] bestTo = new int[n];
+        int numTreeEdges = 0;
+        while (components.getNumSets() > 1) {
+            for (int i = 0; i < n; i++) {
+                pointComponents[i] = components.find(i);
+            }
+            tree.labelComponents(pointComponents);
+            Arrays.fill(bestDistances, Double.POSITIVE_INFINITY);
+            Arrays.fill(bestFrom, -1);
+            for (int i = 0; i < n; i++) {
+                int component = pointComponents[i];
+                tree.findNearestInOtherComponent(i, pointComponents, bestDistances, bestFrom, bestTo, component);
+            }
+            for (int component = 0; component < n; component++) {
+                if (bestFrom[component] == -1) continue;
+                if (components.union(bestFrom[component], bestTo[component])) {
+                    ret[numTreeEdges++] = new int[] { bestFrom[component], bestTo[component] };
+                }
+            }
+        }
+        return ret;
+    }
+
+    // Whether the edge (a, b) with squared length `distance` ranks before the edge (c, d) with squared length
+    // `otherDistance`. Ties in length are broken by endpoints, so that no two different edges rank the same and
+    // Boruvka's rounds never add a cycle.
+    private static boolean isShorter(double distance, int a, int b, double otherDistance, int c, int d) {
+        if (distance != otherDistance) {
+            return distance < otherDistance;
+        }
+        if (c == -1) {
+            return true;
+        }
+        if (Math.min(a, b) != Math.min(c, d)) {
+            return Math.min(a, b) < Math.min(c, d);
+        }
+        return Math.max(a, b) < Math.max(c, d);
+    }
+
+    // A k-d tree over point indices. Node 0 is the root, and the children of node i are nodes 2i + 1 and 2i + 2, so
+    // a node is just its range [nodeStarts[i], nodeEnds[i]) of `indices` and its bounding box.
+    private static class IndexTree {
+        int numDimensions;
+        double[] coords; // coords[p * numDimensions + d] is coordinate d of point p
+        int[] indices;
+        int[] nodeStarts;
+        int[] nodeEnds;
+        double[] boxMins; // boxMins[node * numDimensions + d]
+        double[] boxMaxes;
+        int[] nodeComponents; // the component of every point in the node, or -1 if there is more than one
+
+        public IndexTree(List<double[]> points) {
+            int n = points.size();
+            numDimensions = points.get(0).length;
+            coords = new double[n * numDimensions];
+            indices = new int[n];
+            for (int p = 0; p < n; p++) {
+                double[] point = points.get(p);
+                if (point.length != numDimensions) {
+                    throw new IllegalArgumentException("point must have " + numDimensions + " dimensions.");
+                }
+                System.arraycopy(point, 0, coords, p * numDimensions, numDimensions);
+                indices[p] = p;
+            }
+            int numNodes = 1;
+            while (numNodes * LEAF_SIZE < n) {
+                numNodes *= 2;
+            }
+            numNodes = 2 * numNodes - 1;
+            nodeStarts = new int[numNodes];
+            nodeEnds = new int[numNodes];
+            boxMins = new double[numNodes * numDimensions];
+            boxMaxes = new double[numNodes * numDimensions];
+            nodeComponents = new int[numNodes];
+            Arrays.fill(nodeStarts, -1);
+            build(0, 0, n);
+        }
+
+        private boolean isLeaf(int node) {
+            int left = 2 * node + 1;
+            return left >= nodeStarts.length || nodeStarts[left] == -1;
+        }
+
+        // Split [start, end) at the median of the dimension in which its bounding box is widest.
+        private void build(int node, int start, int end) {
+            nodeStarts[node] = start;
+            nodeEnds[node] = end;
+            int box = node * numDimensions;
+            for (int d = 0; d < numDimensions; d++) {
+                boxMins[box + d] = Double.POSITIVE_INFINITY;
+                boxMaxes[box + d] = Double.NEGATIVE_INFINITY;
+            }
+            for (int i = start; i < end; i++) {
+                int p = indices[i] * numDimensions;
+                for (int d = 0; d < numDimensions; d++) {
+                    boxMins[box + d] = Math.min(boxMins[box + d], coords[p + d]);
+                    boxMaxes[box + d] = Math.max(boxMaxes[box + d], coords[p + d]);
+                }
+            }
+            int left = 2 * node + 1;
+            if (end - start <= LEAF_SIZE || left + 1 >= nodeStarts.length) return;
+            int widest = 0;
+            for (int d = 1; d < numDimensions; d++) {
+                if (boxMaxes[box + d] - boxMins[box + d] > boxMaxes[box + widest] - boxMins[box + widest]) {
+                    widest = d;
+                }
+            }
+            int mid = (start + end) >>> 1;
+            select(start, end - 1, mid, widest);
+            build(left, start, mid);
+            build(left + 1, mid, end);
+        }
+
+        // Quickselect: reorder indices[start..end] so that the point at `k` has the k-th smallest coordinate in
+        // dimension `d`, with no larger coordinates before it and no smaller ones after it.
+        private void select(int start, int end, int k, int d) {
+            while (start < end) {
+                double pivot = coords[indices[start + (int) (Math.random() * (end - start + 1))] * numDimensions + d];
+                int i = start;
+                int j = end;
+                while (i <= j) {
+                    while (coords[indices[i] * numDimensions + d] < pivot) i++;
+                    while (coords[indices[j] * numDimensions + d] > pivot) j--;
+                    if (i <= j) {
+                        int temp = indices[i];
+                        indices[i++] = indices[j];
+                        indices[j--] = temp;
+                    }
+                }
+                if (k <= j) {
+                    end = j;
+                } else if (k >= i) {
+                    start = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        // O(n) - Label every node with the component its points share, or -1.
+        public void labelComponents(int[] pointComponents) {
+            for (int node = nodeStarts.length - 1; node >= 0; node--) {
+                if (nodeStarts[node] == -1) continue;
+                if (isLeaf(node)) {
+                    int component = pointComponents[indices[nodeStarts[node]]];
+                    for (int i = nodeStarts[node] + 1; i < nodeEnds[node]; i++) {
+                        if (pointComponents[indices[i]] != component) {
+                            component = -1;
+                            break;
+                        }
+                    }
+                    nodeComponents[node] = component;
+                } else {
+                    int left = nodeComponents[2 * node + 1];
+                    nodeComponents[node] = left == nodeComponents[2 * node + 2] ? left : -1;
+                }
+            }
+        }
+
+        // Look for a point outside `component` that is closer to point `p` than the best edge that `component` has
+        // found so far, and if there is one, make the closest such point that component's best edge.
+        public void findNearestInOtherComponent(int p, int[] pointComponents, double[] bestDistances, int[] bestFrom,
+                                                int[] bestTo, int component) {
+            search(0, p, pointComponents, bestDistances, bestFrom, bestTo, component);
+        }
+
+        private void search(int node, int p, int[] pointComponents, double[] bestDistances, int[] bestFrom,
+                            int[] bestTo, int component) {
+            if (nodeComponents[node] == component) return;
+            if (boxDistance(node, p) > bestDistances[component]) return;
+            if (isLeaf(node)) {
+                for (int i = nodeStarts[node]; i < nodeEnds[node]; i++) {
+                    int q = indices[i];
+                    if (pointComponents[q] == component) continue;
+                    double distance = squaredDistance(p, q);
+                    if (isShorter(distance, p, q, bestDistances[component], bestFrom[component], bestTo[component])) {
+                        bestDistances[component] = distance;
+                        bestFrom[component] = p;
+                        bestTo[component] = q;
+                    }
+                }
+                return;
+            }
+            // Search the nearer child first, so that the bound is as tight as possible for the farther one.
+            int left = 2 * node + 1;
+            int right = left + 1;
+            if (boxDistance(right, p) < boxDistance(left, p)) {
+                left = right;
+                right = left - 1;
+            }
+            search(left, p, pointComponents, bestDistances, bestFrom, bestTo, component);
+            search(right, p, pointComponents, bestDistances, bestFrom, bestTo, component);
+        }
+
+        // The squared distance from point `p` to the nearest point of `node`'s bounding box.
+        private double boxDistance(int node, int p) {
+            double sum = 0.0;
+            int box = node * numDimensions;
+            int point = p * numDimensions;
+            for (int d = 0; d < numDimensions; d++) {
+                double coord = coords[point + d];
+                double gap = Math.max(0.0, Math.max(boxMins[box + d] - coord, coord - boxMaxes[box + d]));
+                sum += gap * gap;
+            }
+            return sum;
+        }
+
+        private double squaredDistance(int p, int q) {
+            double sum = 0.0;
+            for (int d = 0; d < numDimensions; d++) {
+                double diff = coords[p * numDimensions + d] - coords[q * numDimensions + d];
+                sum += diff * diff;
+            }
+            return sum;
+        }
+    }
+}
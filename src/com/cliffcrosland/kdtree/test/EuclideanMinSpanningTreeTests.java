@@ -0,0 +1,110 @@
+package com.cliffcrosland.kdtree.test;
+
+import com.cliffcrosland.kdtree.EuclideanMinSpanningTree;
+import com.cliffcrosland.unionfind.UnionFind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class EuclideanMinSpanningTreeTests {
+
+    public static void stressTest() {
+        for (int dimensions = 1; dimensions <= 3; dimensions++) {
+            for (int i = 0; i < 5; i++) {
+                testRandomPoints(300, dimensions);
+            }
+        }
+        testGridPoints();
+        testDuplicatePoints();
+        testRandomPoints(1, 2);
+        if (EuclideanMinSpanningTree.findMinSpanningTree(new ArrayList<double[]>()).length != 0) {
+            throw new RuntimeException("MST of no points should have no edges.");
+        }
+        System.out.println("DONE. All tests successful.");
+    }
+
+    private static void testRandomPoints(int numPoints, int dimensions) {
+        List<double[]> points = new ArrayList<double[]>();
+        for (int i = 0; i < numPoints; i++) {
+            double[] point = new double[dimensions];
+            for (int d = 0; d < dimensions; d++) {
+                point[d] = Math.random() * 20 - 10;
+            }
+            points.add(point);
+        }
+        checkMinSpanningTree(points);
+    }
+
+    // Lots of equal-length edges, which must not produce a cycle.
+    private static void testGridPoints() {
+        List<double[]> points = new ArrayList<double[]>();
+        for (int x = 0; x < 20; x++) {
+            for (int y = 0; y < 20; y++) {
+                points.add(new double[] { x, y });
+            }
+        }
+        checkMinSpanningTree(points);
+    }
+
+    private static void testDuplicatePoints() {
+        List<double[]> points = new ArrayList<double[]>();
+        for (int i = 0; i < 100; i++) {
+            points.add(new double[] { i % 7, i % 3 });
+        }
+        checkMinSpanningTree(points);
+    }
+
+    private static void checkMinSpanningTree(List<double[]> points) {
+        int[][] edges = EuclideanMinSpanningTree.findMinSpanningTree(points);
+        if (edges.length != points.size() - 1) {
+            throw new RuntimeException("Expected " + (points.size() - 1) + " edges, but got " + edges.length);
+        }
+        UnionFind sets = new UnionFind(points.size());
+        double cost = 0.0;
+        for (int[] edge : edges) {
+            if (!sets.union(edge[0], edge[1])) {
+                throw new RuntimeException("Edge " + Arrays.toString(edge) + " makes a cycle.");
+            }
+            cost += distance(points.get(edge[0]), points.get(edge[1]));
+        }
+        double expectedCost = findNaiveMinSpanningTreeCost(points);
+        if (Math.abs(cost - expectedCost) > 1e-6) {
+            throw new RuntimeException("Expected MST cost " + expectedCost + ", but got " + cost);
+        }
+    }
+
+    // O(n^2) - Prim's algorithm over the complete graph.
+    private static double findNaiveMinSpanningTreeCost(List<double[]> points) {
+        int n = points.size();
+        double[] distances = new double[n];
+        boolean[] inTree = new boolean[n];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[0] = 0.0;
+        double cost = 0.0;
+        for (int i = 0; i < n; i++) {
+            int next = -1;
+            for (int j = 0; j < n; j++) {
+                if (!inTree[j] && (next == -1 || distances[j] < distances[next])) {
+                    next = j;
+                }
+            }
+            inTree[next] = true;
+            cost += distances[next];
+            for (int j = 0; j < n; j++) {
+                if (!inTree[j]) {
+                    distances[j] = Math.min(distances[j], distance(points.get(next), points.get(j)));
+                }
+            }
+        }
+        return cost;
+    }
+
+    private static double distance(double[] pointA, double[] pointB) {
+        double sum = 0;
+        for (int i = 0; i < pointA.length; i++) {
+            sum += (pointA[i] - pointB[i]) * (pointA[i] - pointB[i]);
+        }
+        return Math.sqrt(sum);
+    }
+}
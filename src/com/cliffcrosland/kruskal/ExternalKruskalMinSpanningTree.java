@@ -0,0 +1,198 @@
+package com.cliffcrosland.kruskal;
+
+import com.cliffcrosland.heap.IndexedMinHeap;
+import com.cliffcrosland.quicksort.Quicksort;
+import com.cliffcrosland.unionfind.UnionFind;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Semi-external Kruskal's algorithm: for graphs whose nodes fit in memory but whose edges do not.
+ *
+ * Edges are streamed in as fixed-size binary records, and the min spanning tree (or forest) is streamed out in the
+ * same format. Each record is 16 bytes, big-endian, as written by `DataOutputStream`: writeInt(from), writeInt(to),
+ * writeDouble(weight). Edges are undirected.
+ *
+ * Kruskal's algorithm only needs to see the edges in order of weight, and its union-find forest only needs one entry
+ * per node. So we external-sort the edges: read as many as fit in memory, sort them, and spill them to a temporary
+ * file as a sorted "run". Then merge all of the runs at once, always taking the lightest edge at the front of any
+ * run, and feed the merged stream through Kruskal's loop.
+ *
+ * Before spilling a run, we also throw away every edge that is not in the run's own min spanning forest. An edge left
+ * out of that forest is the heaviest edge on some cycle of edges in the run, and the heaviest edge on a cycle is never
+ * needed in the min spanning tree of the whole graph either. So each run spills at most V - 1 edges, however many
+ * edges it read, and usually the temporary files are far smaller than the input.
+ */
+public class ExternalKruskalMinSpanningTree {
+    public static final int RECORD_SIZE = 16;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Read every edge in `edges`, and write the edges of the min spanning forest of the graph on nodes [0, numNodes)
+    // to `minSpanningTree`, in ascending order of weight. Returns how many edges were written. At most
+    // `maxEdgesInMemory` edges are held in memory at once; sorted runs are spilled to temporary files in
+    // `tempDirectory` (or the default temporary directory, if it is null), which are deleted before returning.
+    //
+    // O(E log M) time for the sorts, where M is maxEdgesInMemory, then O(E' log R) to merge the R runs holding E' <=
+    // R * (V - 1) edges. Memory is O(M + V), plus one buffer per run during the merge.
+    public static int findMinSpanningTree(int numNodes, InputStream edges, OutputStream minSpanningTree,
+                                          File tempDirectory, int maxEdgesInMemory) throws IOException {
+        if (maxEdgesInMemory < 1) {
+            throw new IllegalArgumentException("Max edges in memory must be positive.");
+        }
+        List<File> runs = new ArrayList<File>();
+        try {
+            EdgeReader reader = new EdgeReader(new BufferedInputStream(edges, BUFFER_SIZE));
+            int[] from = new int[maxEdgesInMemory];
+            int[] to = new int[maxEdgesInMemory];
+            double[] weights = new double[maxEdgesInMemory];
+            while (true) {
+                int numEdges = 0;
+                while (numEdges < maxEdgesInMemory && reader.next()) {
+                    assertValidNodeId(reader.from, numNodes);
+                    assertValidNodeId(reader.to, numNodes);
+                    from[numEdges] = reader.from;
+                    to[numEdges] = reader.to;
+                    weights[numEdges] = reader.weight;
+                    numEdges++;
+                }
+                if (numEdges == 0) break;
+                // Register the file before writing to it, so that it is deleted below even if the write fails.
+                File run = File.createTempFile("kruskal-run", ".bin", tempDirectory);
+                runs.add(run);
+                writeRun(run, numNodes, from, to, weights, numEdges);
+                if (numEdges < maxEdgesInMemory) break;
+            }
+            return mergeRuns(numNodes, runs, minSpanningTree);
+        } finally {
+            for (File run : runs) {
+                run.delete();
+            }
+        }
+    }
+
+    // Same as above, reading from and writing to files.
+    public static int findMinSpanningTree(int numNodes, File edges, File minSpanningTree, int maxEdgesInMemory)
+            throws IOException {
+        InputStream in = new FileInputStream(edges);
+        try {
+            OutputStream out = new FileOutputStream(minSpanningTree);
+            try {
+                return findMinSpanningTree(numNodes, in, out, minSpanningTree.getAbsoluteFile().getParentFile(),
+                        maxEdgesInMemory);
+            } finally {
+                out.close();
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    // Sort one run of edges by weight, and spill the ones in its min spanning forest to the temporary file `run`.
+    private static void writeRun(File run, int numNodes, int[] from, int[] to, double[] weights, int numEdges)
+            throws IOException {
+        int[] sortedEdges = new int[numEdges];
+        for (int i = 0; i < numEdges; i++) {
+            sortedEdges[i] = i;
+        }
+        Quicksort.sortIndicesByKey(sortedEdges, weights, 0, numEdges - 1);
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run), BUFFER_SIZE));
+        try {
+            UnionFind sets = new UnionFind(numNodes);
+            for (int i = 0; i < numEdges && sets.getNumSets() > 1; i++) {
+                int edge = sortedEdges[i];
+                if (sets.union(from[edge], to[edge])) {
+                    writeEdge(out, from[edge], to[edge], weights[edge]);
+                }
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    // K-way merge of the sorted runs, feeding edges to Kruskal's loop in order of weight. A heap holds the run index
+    // of each run that still has edges, keyed by the weight of the edge at its front.
+    private static int mergeRuns(int numNodes, List<File> runs, OutputStream minSpanningTree) throws IOException {
+        EdgeReader[] readers = new EdgeReader[runs.size()];
+        IndexedMinHeap heap = new IndexedMinHeap(runs.size());
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(minSpanningTree, BUFFER_SIZE));
+        int numTreeEdges = 0;
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new EdgeReader(new BufferedInputStream(new FileInputStream(runs.get(i)), BUFFER_SIZE));
+                if (readers[i].next()) {
+                    heap.add(i, readers[i].weight);
+                }
+            }
+            UnionFind sets = new UnionFind(numNodes);
+            while (!heap.isEmpty() && sets.getNumSets() > 1) {
+                int i = heap.popMin();
+                EdgeReader reader = readers[i];
+                if (sets.union(reader.from, reader.to)) {
+                    writeEdge(out, reader.from, reader.to, reader.weight);
+                    numTreeEdges++;
+                }
+                if (reader.next()) {
+                    heap.add(i, reader.weight);
+                }
+            }
+            out.flush();
+        } finally {
+            for (EdgeReader reader : readers) {
+                if (reader != null) reader.close();
+            }
+        }
+        return numTreeEdges;
+    }
+
+    private static void writeEdge(DataOutputStream out, int from, int to, double weight) throws IOException {
+        out.writeInt(from);
+        out.writeInt(to);
+        out.writeDouble(weight);
+    }
+
+    private static void assertValidNodeId(int node, int numNodes) {
+        if (node < 0 || node >= numNodes) {
+            throw new IllegalArgumentException("Node id " + node + " is not in the range [0, " + numNodes + ").");
+        }
+    }
+
+    // Reads edge records one at a time. Unlike `DataInputStream`, tells a clean end of the stream apart from a record
+    // that was cut off partway.
+    private static class EdgeReader {
+        private InputStream in;
+        private byte[] record = new byte[RECORD_SIZE];
+        private ByteBuffer buffer = ByteBuffer.wrap(record);
+        int from;
+        int to;
+        double weight;
+
+        public EdgeReader(InputStream in) {
+            this.in = in;
+        }
+
+        // Read the next edge into `from`, `to`, and `weight`. Returns false at the end of the stream.
+        public boolean next() throws IOException {
+            int numRead = 0;
+            while (numRead < RECORD_SIZE) {
+                int n = in.read(record, numRead, RECORD_SIZE - numRead);
+                if (n == -1) break;
+                numRead += n;
+            }
+            if (numRead == 0) return false;
+            if (numRead < RECORD_SIZE) {
+                throw new EOFException("Edge record was cut off after " + numRead + " bytes.");
+            }
+            from = buffer.getInt(0);
+            to = buffer.getInt(4);
+            weight = buffer.getDouble(8);
+            return true;
+        }
+
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.cliffcrosland.kruskal;
 
+import com.cliffcrosland.graph.CompactGraph;
 import com.cliffcrosland.graph.Graph;
 import com.cliffcrosland.graph.GraphEdge;
 import com.cliffcrosland.graph.GraphNode;
+import com.cliffcrosland.quicksort.Quicksort;
+import com.cliffcrosland.unionfind.UnionFind;
 
 import java.util.*;
 
@@ -140,79 +143,206 @@ public class KruskalMinSpanningTree {
     // Future work - there is actually an even tighter bound than O(E log* V) on the edge processing routine. It's
     // O(E alpha V) where alpha is the inverse Ackerman function. But that is a tale for another day.
 
+    // Implementation notes: nodes are numbered once, so the union-find forest is a pair of arrays indexed by node id
+    // (see `UnionFind`) instead of a map from each node to a tree node object, and each edge's endpoints are
+    // looked up in that numbering once, not on every Find. The edges are sorted as an array of indices into a
+    // `double[]` of weights, so the sort compares primitives instead of calling a comparator on boxed edges.
     public static Set<GraphEdge> findMinSpanningTree(Graph graph) {
-        List<GraphEdge> sortedEdges = new ArrayList<GraphEdge>(graph.edges);
-        sortedEdges.sort(new Comparator<GraphEdge>() {
-            @Override
-            public int compare(GraphEdge a, GraphEdge b) {
-                if (a.value < b.value) return -1;
-                if (a.value > b.value) return 1;
-                return 0;
-            }
-        });
-        Map<GraphNode, UnionFindTreeNode> unionFindMap = new HashMap<GraphNode, UnionFindTreeNode>();
-        int label = 0;
+        Map<GraphNode, Integer> nodeIds = new HashMap<GraphNode, Integer>(graph.nodes.size() * 2);
         for (GraphNode node : graph.nodes) {
-            unionFindMap.put(node, new UnionFindTreeNode(++label));
+            nodeIds.put(node, nodeIds.size());
+        }
+        GraphEdge[] edges = graph.edges.toArray(new GraphEdge[graph.edges.size()]);
+        int[] sortedEdges = new int[edges.length];
+        int[] from = new int[edges.length];
+        int[] to = new int[edges.length];
+        double[] weights = new double[edges.length];
+        for (int i = 0; i < edges.length; i++) {
+            Integer fromId = nodeIds.get(edges[i].from);
+            Integer toId = nodeIds.get(edges[i].to);
+            if (fromId == null || toId == null) {
+                throw new IllegalArgumentException("Edge has an endpoint that is not in the graph.");
+            }
+            sortedEdges[i] = i;
+            from[i] = fromId;
+            to[i] = toId;
+            weights[i] = edges[i].value;
         }
+        Quicksort.sortIndicesByKey(sortedEdges, weights);
+        UnionFind sets = new UnionFind(nodeIds.size());
         Set<GraphEdge> minSpanningTree = new HashSet<GraphEdge>();
-        for (GraphEdge edge : sortedEdges) {
-            UnionFindTreeNode fromTreeRoot = unionFindMap.get(edge.from).getRoot();
-            UnionFindTreeNode toTreeRoot = unionFindMap.get(edge.to).getRoot();
-            if (fromTreeRoot.label == toTreeRoot.label) continue;
-            UnionFindTreeNode.merge(fromTreeRoot, toTreeRoot);
-            minSpanningTree.add(edge);
+        for (int i = 0; i < sortedEdges.length && minSpanningTree.size() < nodeIds.size() - 1; i++) {
+            int edge = sortedEdges[i];
+            if (sets.union(from[edge], to[edge])) {
+                minSpanningTree.add(edges[edge]);
+            }
         }
         return minSpanningTree;
     }
 
-    private static class UnionFindTreeNode {
-        public int label;
-        public int rank; // upper bound for longest path from a leaf node to this node
-        public UnionFindTreeNode parent;
+    // Kruskal's algorithm on the compact (CSR) form of a graph. Returns the ids of the edges in the min spanning tree
+    // (or forest, if the graph is not connected).
+    //
+    // Same algorithm as above, but the nodes and edges are already numbered, so nothing is allocated per node or per
+    // edge.
+    public static int[] findMinSpanningTree(CompactGraph graph) {
+        int[] sortedEdges = new int[graph.numEdges];
+        int[] sources = new int[graph.numEdges];
+        for (int node = 0; node < graph.numNodes; node++) {
+            for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+                sortedEdges[edge] = edge;
+                sources[edge] = node;
+            }
+        }
+        Quicksort.sortIndicesByKey(sortedEdges, graph.weights);
+        UnionFind sets = new UnionFind(graph.numNodes);
+        int[] minSpanningTree = new int[Math.max(graph.numNodes - 1, 0)];
+        int numTreeEdges = 0;
+        for (int i = 0; i < sortedEdges.length && numTreeEdges < minSpanningTree.length; i++) {
+            int edge = sortedEdges[i];
+            if (sets.union(sources[edge], graph.targets[edge])) {
+                minSpanningTree[numTreeEdges++] = edge;
+            }
+        }
+        return Arrays.copyOf(minSpanningTree, numTreeEdges);
+    }
 
-        public UnionFindTreeNode(int label) {
-            this.label = label;
-            this.rank = 0;
-            this.parent = null;
+    // Filter-Kruskal (Osipov, Sanders, and Singler): Kruskal's algorithm on the compact (CSR) form of a graph, without
+    // sorting every edge. Returns the same edges as `findMinSpanningTree(CompactGraph)`.
+    //
+    // As noted above, sorting the edges is the bottleneck of Kruskal's algorithm. But on most graphs the tree is
+    // finished long before we reach the heaviest edges, and by then most of those edges join two nodes that are
+    // already connected. So instead of sorting everything up front, we do what quicksort does: partition the edges
+    // around a random pivot weight, and handle the light side first. Then, before touching the heavy side, we
+    // "filter" it: throw away every heavy edge whose endpoints the light edges already connected. Only what survives
+    // is partitioned and sorted further. Small ranges are sorted and scanned like plain Kruskal's.
+    //
+    // On random graphs, the expected runtime is O(E + V log V log(E / V)), instead of O(E log E).
+    public static int[] findMinSpanningTreeFilterKruskal(CompactGraph graph) {
+        FilterKruskal filterKruskal = new FilterKruskal(graph);
+        filterKruskal.run(0, graph.numEdges - 1);
+        return Arrays.copyOf(filterKruskal.minSpanningTree, filterKruskal.numTreeEdges);
+    }
+
+    // How many edges Filter-Kruskal puts in order on `graph`, by sorting them or by gathering them into a block of
+    // equal weights, rather than throwing them away in a filter step. Plain Kruskal's orders all E edges. Used by
+    // tests to check that filtering actually happens.
+    public static int countEdgesOrderedByFilterKruskal(CompactGraph graph) {
+        FilterKruskal filterKruskal = new FilterKruskal(graph);
+        filterKruskal.run(0, graph.numEdges - 1);
+        return filterKruskal.numEdgesOrdered;
+    }
+
+    // Same as above, with the `GraphEdge`s of `graph`.
+    public static Set<GraphEdge> findMinSpanningTreeFilterKruskal(Graph graph) {
+        CompactGraph compactGraph = CompactGraph.fromGraph(graph);
+        return new HashSet<GraphEdge>(compactGraph.toGraphEdges(findMinSpanningTreeFilterKruskal(compactGraph)));
+    }
+
+    private static class FilterKruskal {
+        // Ranges with at most this many edges are sorted and scanned rather than partitioned.
+        private static final int BASE_CASE_SIZE = 256;
+
+        private CompactGraph graph;
+        private int[] edges;
+        private int[] sources;
+        private UnionFind sets;
+        private int[] minSpanningTree;
+        private int numTreeEdges;
+        private int numEdgesOrdered;
+
+        // Set by `partition`: [start, equalStart) is lighter than the pivot, [equalStart, heavyStart) is equal to it,
+        // and [heavyStart, end] is heavier.
+        private int equalStart;
+        private int heavyStart;
+
+        public FilterKruskal(CompactGraph graph) {
+            this.graph = graph;
+            edges = new int[graph.numEdges];
+            sources = new int[graph.numEdges];
+            for (int node = 0; node < graph.numNodes; node++) {
+                for (int edge = graph.offsets[node]; edge < graph.offsets[node + 1]; edge++) {
+                    edges[edge] = edge;
+                    sources[edge] = node;
+                }
+            }
+            sets = new UnionFind(graph.numNodes);
+            minSpanningTree = new int[Math.max(graph.numNodes - 1, 0)];
         }
 
-        public UnionFindTreeNode getRoot() {
-            if (parent == null) {
-                return this;
+        // Process the edges in the inclusive range [start, end] of `edges`, in order of weight.
+        public void run(int start, int end) {
+            if (numTreeEdges == minSpanningTree.length || start > end) return;
+            if (end - start + 1 <= BASE_CASE_SIZE) {
+                Quicksort.sortIndicesByKey(edges, graph.weights, start, end);
+                numEdgesOrdered += end - start + 1;
+                scan(start, end);
+                return;
+            }
+            partition(start, end);
+            // Local copies, since the recursive call below overwrites the fields.
+            int equalStart = this.equalStart;
+            int heavyStart = this.heavyStart;
+            run(start, equalStart - 1);
+            // Every edge in the middle block has the pivot's weight, so it is already in order.
+            if (numTreeEdges < minSpanningTree.length) {
+                numEdgesOrdered += heavyStart - equalStart;
+                scan(equalStart, heavyStart - 1);
+            }
+            if (heavyStart <= end) {
+                run(heavyStart, filter(heavyStart, end));
             }
-            // To improve the run-time of future calls, connect self directly to root so that future getRoot() calls
-            // run faster.
-            //
-            // This optimization is kind of AMAZING. O(E log V) work done to find root nodes becomes O(E log* V).
-            // You can read more about the function in the intro text, but for example, log*(2^65536) =
-            // log*(a number unimaginably bigger than the estimated number of atoms in the universe) = 5.
-            parent = parent.getRoot();
-            return parent;
         }
 
-        public static void merge(UnionFindTreeNode rootA, UnionFindTreeNode rootB) {
-            assertIsRoot(rootA);
-            assertIsRoot(rootB);
-            UnionFindTreeNode smaller, larger;
-            if (rootA.rank < rootB.rank) {
-                smaller = rootA;
-                larger = rootB;
-            } else {
-                smaller = rootB;
-                larger = rootA;
+        // Kruskal's loop over [start, end], which must already be in order of weight.
+        private void scan(int start, int end) {
+            for (int i = start; i <= end && numTreeEdges < minSpanningTree.length; i++) {
+                int edge = edges[i];
+                if (sets.union(sources[edge], graph.targets[edge])) {
+                    minSpanningTree[numTreeEdges++] = edge;
+                }
             }
-            smaller.parent = larger;
-            if (larger.rank == smaller.rank) {
-                larger.rank += 1;
+        }
+
+        // O(n) - Three-way partition of [start, end] around the weight of a random pivot edge, setting `equalStart`
+        // and `heavyStart`. The equal block is never empty, so both other sides are strictly smaller than the range,
+        // even when many edges share the pivot's weight.
+        private void partition(int start, int end) {
+            double pivot = graph.weights[edges[start + (int) (Math.random() * (end - start + 1))]];
+            int lt = start; // [start, lt) is lighter
+            int gt = end;   // (gt, end] is heavier
+            int i = start;  // [lt, i) is equal, [i, gt] is not yet looked at
+            while (i <= gt) {
+                double weight = graph.weights[edges[i]];
+                if (weight < pivot) {
+                    swap(lt++, i++);
+                } else if (weight > pivot) {
+                    swap(i, gt--);
+                } else {
+                    i++;
+                }
             }
+            equalStart = lt;
+            heavyStart = gt + 1;
         }
 
-        private static void assertIsRoot(UnionFindTreeNode root) {
-            if (root.parent != null) {
-                throw new IllegalArgumentException("root's parent is not null, so it is not a root");
+        private void swap(int a, int b) {
+            int temp = edges[a];
+            edges[a] = edges[b];
+            edges[b] = temp;
+        }
+
+        // O(n log* V) - Keep only the edges in [start, end] whose endpoints are not yet connected, moving them to the
+        // front of the range. Returns the index of the last edge kept.
+        private int filter(int start, int end) {
+            int last = start - 1;
+            for (int i = start; i <= end; i++) {
+                int edge = edges[i];
+                if (sets.find(sources[edge]) != sets.find(graph.targets[edge])) {
+                    edges[++last] = edge;
+                }
             }
+            return last;
         }
     }
-
 }
@@ -1,10 +1,14 @@
 package com.cliffcrosland.kruskal.test;
 
+import com.cliffcrosland.graph.CompactGraph;
 import com.cliffcrosland.graph.Graph;
 import com.cliffcrosland.graph.GraphEdge;
 import com.cliffcrosland.graph.test.GraphTestUtils;
+import com.cliffcrosland.kruskal.ExternalKruskalMinSpanningTree;
 import com.cliffcrosland.kruskal.KruskalMinSpanningTree;
 
+import java.io.*;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -18,6 +22,7 @@ public class KruskalMinSpanningTreeTests {
         System.out.println("Found " + testCases.size() + " test cases. Running...");
         for (GraphTestUtils.GraphTestCase testCase : testCases) {
             Set<GraphEdge> minSpanningTree = KruskalMinSpanningTree.findMinSpanningTree(testCase.graph);
+            assertCompactMinSpanningTreeHasSameCost(testCase.graph, minSpanningTree);
             if (GraphTestUtils.treeCost(minSpanningTree) - GraphTestUtils.treeCost(testCase.solution) > 1e-4) {
                 println("Test case failed!");
                 println("Graph:");
@@ -51,11 +56,126 @@ public class KruskalMinSpanningTreeTests {
         printTree(bruteForceMinSpanningTree);
         println("");
 
+        assertCompactMinSpanningTreeHasSameCost(graph, minSpanningTree);
         if (GraphTestUtils.treeCost(minSpanningTree) - GraphTestUtils.treeCost(bruteForceMinSpanningTree) > 1e-4) {
             throw new RuntimeException("Kruskal min spanning tree cost is greater than brute force spanning tree cost");
         }
     }
 
+    private static void assertCompactMinSpanningTreeHasSameCost(Graph graph, Set<GraphEdge> minSpanningTree) {
+        CompactGraph compactGraph = CompactGraph.fromGraph(graph);
+        Set<GraphEdge> compactMinSpanningTree = new HashSet<>(
+                compactGraph.toGraphEdges(KruskalMinSpanningTree.findMinSpanningTree(compactGraph)));
+        if (Math.abs(GraphTestUtils.treeCost(compactMinSpanningTree) - GraphTestUtils.treeCost(minSpanningTree)) > 1e-4) {
+            throw new RuntimeException("Compact graph Kruskal min spanning tree cost differs from Kruskal min spanning tree cost");
+        }
+        Set<GraphEdge> filterKruskalMinSpanningTree = KruskalMinSpanningTree.findMinSpanningTreeFilterKruskal(graph);
+        if (Math.abs(GraphTestUtils.treeCost(filterKruskalMinSpanningTree) - GraphTestUtils.treeCost(minSpanningTree)) > 1e-4) {
+            throw new RuntimeException("Filter-Kruskal min spanning tree cost differs from Kruskal min spanning tree cost");
+        }
+    }
+
+    // Graphs big enough that Filter-Kruskal partitions and filters instead of going straight to its sorted base case,
+    // including one with many tied edge weights.
+    public static void testLargeMinSpanningTree() {
+        for (int maxEdgeValue : new int[] { 3, 1000000 }) {
+            Graph graph = GraphTestUtils.createRandomUndirectedConnectedGraph(2000, 4, maxEdgeValue);
+            for (GraphEdge edge : graph.edges) {
+                edge.value = Math.floor(edge.value);
+            }
+            Set<GraphEdge> minSpanningTree = KruskalMinSpanningTree.findMinSpanningTree(graph);
+            Set<GraphEdge> filterKruskalMinSpanningTree = KruskalMinSpanningTree.findMinSpanningTreeFilterKruskal(graph);
+            if (filterKruskalMinSpanningTree.size() != graph.nodes.size() - 1) {
+                throw new RuntimeException("Filter-Kruskal min spanning tree has the wrong number of edges");
+            }
+            if (Math.abs(GraphTestUtils.treeCost(filterKruskalMinSpanningTree) - GraphTestUtils.treeCost(minSpanningTree)) > 1e-4) {
+                throw new RuntimeException("Filter-Kruskal min spanning tree cost differs from Kruskal min spanning tree cost");
+            }
+        }
+    }
+
+    // Half the edges share the minimum weight, and they alone connect the graph. Whenever the pivot lands on that
+    // weight, the three-way partition puts them in the equal block, and every heavier edge should be filtered away
+    // rather than sorted.
+    public static void testFilterKruskalWithEqualMinWeights() {
+        int numNodes = 20000;
+        int numLightEdges = 2 * numNodes;
+        int numEdges = 2 * numLightEdges;
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        double[] weights = new double[numEdges];
+        for (int i = 0; i < numEdges; i++) {
+            if (i < numNodes - 1) {
+                from[i] = i; // a path through every node, so the light edges connect the graph
+                to[i] = i + 1;
+            } else {
+                from[i] = (int) (Math.random() * numNodes);
+                to[i] = (int) (Math.random() * numNodes);
+            }
+            weights[i] = i < numLightEdges ? 1.0 : 2.0 + (int) (Math.random() * 8);
+        }
+        CompactGraph graph = new CompactGraph(numNodes, from, to, weights);
+        for (int trial = 0; trial < 10; trial++) {
+            int numOrdered = KruskalMinSpanningTree.countEdgesOrderedByFilterKruskal(graph);
+            if (numOrdered > graph.numEdges / 2) {
+                throw new RuntimeException("Filter-Kruskal ordered " + numOrdered + " of " + graph.numEdges +
+                        " edges. The heavy edges should have been filtered.");
+            }
+        }
+        int[] minSpanningTree = KruskalMinSpanningTree.findMinSpanningTreeFilterKruskal(graph);
+        if (minSpanningTree.length != numNodes - 1) {
+            throw new RuntimeException("Expected " + (numNodes - 1) + " tree edges, but got " + minSpanningTree.length);
+        }
+        for (int edge : minSpanningTree) {
+            if (graph.weights[edge] != 1.0) {
+                throw new RuntimeException("Tree edge " + edge + " has weight " + graph.weights[edge]);
+            }
+        }
+    }
+
+    // Stream a random graph through the external version with room for only a few edges in memory at once, so that
+    // it has to spill and merge many runs, and compare against the in-memory version.
+    public static void testExternalMinSpanningTree() {
+        int numNodes = 1000;
+        int numEdges = 5000;
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        double[] weights = new double[numEdges];
+        ByteArrayOutputStream edges = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(edges);
+        try {
+            for (int i = 0; i < numEdges; i++) {
+                from[i] = (int) (Math.random() * numNodes);
+                to[i] = (int) (Math.random() * numNodes);
+                weights[i] = Math.random() * 100.0;
+                out.writeInt(from[i]);
+                out.writeInt(to[i]);
+                out.writeDouble(weights[i]);
+            }
+            ByteArrayOutputStream minSpanningTree = new ByteArrayOutputStream();
+            int numTreeEdges = ExternalKruskalMinSpanningTree.findMinSpanningTree(numNodes,
+                    new ByteArrayInputStream(edges.toByteArray()), minSpanningTree, null, 300);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(minSpanningTree.toByteArray()));
+            double cost = 0.0;
+            for (int i = 0; i < numTreeEdges; i++) {
+                in.readInt();
+                in.readInt();
+                cost += in.readDouble();
+            }
+            CompactGraph graph = new CompactGraph(numNodes, from, to, weights);
+            int[] expected = KruskalMinSpanningTree.findMinSpanningTree(graph);
+            double expectedCost = 0.0;
+            for (int edge : expected) {
+                expectedCost += graph.weights[edge];
+            }
+            if (numTreeEdges != expected.length || Math.abs(cost - expectedCost) > 1e-4) {
+                throw new RuntimeException("External Kruskal min spanning tree differs from Kruskal min spanning tree");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to run external Kruskal", e);
+        }
+    }
+
     public static void println(Object o) {
         if (!DEBUG) return;
         System.out.println(o);
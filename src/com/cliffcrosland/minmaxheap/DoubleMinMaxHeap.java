@@ -0,0 +1,231 @@
+package com.cliffcrosland.minmaxheap;
+
+import java.util.Arrays;
+
+/*
+ * The same min-max heap as `MinMaxHeap`, for entries ordered by a double key: each entry is a key in a `double[]` and
+ * a value in an `Object[]` at the same index. Comparing two entries is a `<` on doubles rather than a virtual
+ * `compareTo` call, and adding an entry does not need a wrapper object to hold its key.
+ */
+public class DoubleMinMaxHeap<T> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private double[] keys;
+    private Object[] values;
+    private int size;
+
+    public DoubleMinMaxHeap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DoubleMinMaxHeap(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity must be non-negative.");
+        }
+        keys = new double[capacity];
+        values = new Object[capacity];
+    }
+
+    // O(n) - Make a heap from the first `size` keys and values in linear time. The arrays are copied, not kept.
+    public DoubleMinMaxHeap(double[] keys, T[] values, int size) {
+        if (size < 0 || size > keys.length || size > values.length) {
+            throw new IllegalArgumentException("Size " + size + " does not fit in the given arrays.");
+        }
+        this.keys = Arrays.copyOf(keys, Math.max(size, DEFAULT_CAPACITY));
+        this.values = Arrays.copyOf(values, Math.max(size, DEFAULT_CAPACITY), Object[].class);
+        this.size = size;
+        makeMinMaxHeap();
+    }
+
+    // O(1)
+    public double peekMinKey() {
+        assertNotEmpty("Cannot find min.");
+        return keys[0];
+    }
+
+    // O(1)
+    @SuppressWarnings("unchecked")
+    public T peekMin() {
+        assertNotEmpty("Cannot find min.");
+        return (T) values[0];
+    }
+
+    // O(1)
+    public double peekMaxKey() {
+        assertNotEmpty("Cannot find max.");
+        return keys[getMaxIndex()];
+    }
+
+    // O(1)
+    @SuppressWarnings("unchecked")
+    public T peekMax() {
+        assertNotEmpty("Cannot find max.");
+        return (T) values[getMaxIndex()];
+    }
+
+    // O(log n) - Remove the entry with the smallest key and return its value.
+    @SuppressWarnings("unchecked")
+    public T popMin() {
+        assertNotEmpty("Cannot pop min.");
+        return (T) removeAt(0);
+    }
+
+    // O(log n) - Remove the entry with the largest key and return its value.
+    @SuppressWarnings("unchecked")
+    public T popMax() {
+        assertNotEmpty("Cannot pop max.");
+        return (T) removeAt(getMaxIndex());
+    }
+
+    // O(log n), amortized over the occasional doubling of the arrays.
+    public void add(double key, T value) {
+        if (size == keys.length) {
+            int capacity = Math.max(2 * keys.length, DEFAULT_CAPACITY);
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        minMaxHeapifyUpward(size - 1);
+    }
+
+    // O(1)
+    public int size() {
+        return size;
+    }
+
+    // O(1)
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // === Helpers ===
+
+    private int getMaxIndex() {
+        if (size <= 2) {
+            return size - 1;
+        }
+        return keys[1] >= keys[2] ? 1 : 2;
+    }
+
+    private Object removeAt(int i) {
+        Object value = values[i];
+        size--;
+        keys[i] = keys[size];
+        values[i] = values[size];
+        values[size] = null; // let go of the reference, so that it can be garbage collected
+        if (i < size) {
+            minMaxHeapifyDownward(i);
+        }
+        return value;
+    }
+
+    private void makeMinMaxHeap() {
+        for (int i = (size >>> 1) - 1; i >= 0; i--) {
+            minMaxHeapifyDownward(i);
+        }
+    }
+
+    private void minMaxHeapifyDownward(int i) {
+        // The comments describe the steps required for a min-level. Without loss of generality, flip "min/max" and
+        // and "greater than/less than" to get the right comments for a max-level.
+        boolean isMinLevel = isIndexOnMinLevel(i);
+        while (2 * i + 1 < size) {
+            int m = findExtremeChildOrGrandChild(i, isMinLevel);
+            if (m >= 4 * i + 3) {
+                // `root` must be smaller than all of its descendants. If the minimum descendant is a grandchild, and
+                // this grandchild is smaller than `root`, that's a problem that we need to fix. We can fix it by
+                // swapping `root` and the min grandchild. After swapping, a new problem may arise: `root` might be
+                // bigger than its new parent, and the parent must be bigger than all of its descendants. We can fix
+                // this problem by swapping `root` and its new parent. Finally, after all of this swapping, we may have
+                // caused a broken heap down where the min grandchild used to be, so we keep heapifying downward there.
+                if (!isBefore(m, i, isMinLevel)) return;
+                swap(i, m);
+                int parent = (m - 1) >>> 1;
+                if (isBefore(parent, m, isMinLevel)) {
+                    swap(m, parent);
+                }
+                i = m;
+            } else {
+                // `root` must be smaller than all of its descendants. If the minimum descendant is a child, and this
+                // child is smaller than `root`, that's a problem that we need to fix. We can fix it by swapping `root`
+                // and the min child. Afterward, there is no need continue heapifying: the new root is less than all
+                // of its descendants, and the new child is greater than all of its descendants.
+                if (isBefore(m, i, isMinLevel)) {
+                    swap(i, m);
+                }
+                return;
+            }
+        }
+    }
+
+    private void minMaxHeapifyUpward(int i) {
+        // The comments describe the steps required for a min-level. Without loss of generality, flip "min/max" and
+        // and "greater than/less than" to get the right comments for a max-level.
+        if (i == 0) {
+            return;
+        }
+        boolean isMinLevel = isIndexOnMinLevel(i);
+        int parent = (i - 1) >>> 1;
+        if (isBefore(parent, i, isMinLevel)) {
+            // The parent of `node` needs to be greater than all of its descendants. If `node` is greater than its
+            // parent, that's a problem we need to fix. We can fix it by swapping `node` and its parent. From there,
+            // `node` only has to be compared against its grandparents on the other kind of level.
+            swap(i, parent);
+            i = parent;
+            isMinLevel = !isMinLevel;
+        }
+        // The grandparent of `node` needs to be less than all of its descendants. If `node` is less than its
+        // grandparent, that's a problem we need to fix. We can fix it by swapping `node` and its grandparent, and
+        // then checking the new grandparent, all the way up.
+        while (i >= 3) {
+            int grandParent = (i - 3) >>> 2;
+            if (!isBefore(i, grandParent, isMinLevel)) break;
+            swap(i, grandParent);
+            i = grandParent;
+        }
+    }
+
+    // The index of the smallest (on a min-level) or largest (on a max-level) of `i`'s children and grandchildren. `i`
+    // must have at least one child.
+    private int findExtremeChildOrGrandChild(int i, boolean findMinimum) {
+        int extremeSoFar = 2 * i + 1;
+        if (extremeSoFar + 1 < size && isBefore(extremeSoFar + 1, extremeSoFar, findMinimum)) {
+            extremeSoFar++;
+        }
+        int lastGrandChild = Math.min(4 * i + 6, size - 1);
+        for (int grandChild = 4 * i + 3; grandChild <= lastGrandChild; grandChild++) {
+            if (isBefore(grandChild, extremeSoFar, findMinimum)) {
+                extremeSoFar = grandChild;
+            }
+        }
+        return extremeSoFar;
+    }
+
+    // O(1) - The level of index i is floor(log2(i + 1)), the position of the highest set bit of i + 1. Even levels are
+    // min-levels.
+    private static boolean isIndexOnMinLevel(int i) {
+        return ((31 - Integer.numberOfLeadingZeros(i + 1)) & 1) == 0;
+    }
+
+    // Whether the key at `a` belongs above the key at `b` on a min-level (it is smaller) or a max-level (larger).
+    private boolean isBefore(int a, int b, boolean isMinLevel) {
+        return isMinLevel ? keys[a] < keys[b] : keys[a] > keys[b];
+    }
+
+    private void swap(int a, int b) {
+        double tempKey = keys[a];
+        keys[a] = keys[b];
+        keys[b] = tempKey;
+        Object tempValue = values[a];
+        values[a] = values[b];
+        values[b] = tempValue;
+    }
+
+    private void assertNotEmpty(String message) {
+        if (isEmpty()) {
+            throw new RuntimeException(message + " The heap is empty.");
+        }
+    }
+}
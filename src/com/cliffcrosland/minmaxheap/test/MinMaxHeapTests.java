@@ -0,0 +1,96 @@
+package com.cliffcrosland.minmaxheap.test;
+
+import com.cliffcrosland.minmaxheap.DoubleMinMaxHeap;
+import com.cliffcrosland.minmaxheap.MinMaxHeap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class MinMaxHeapTests {
+
+    public static void stressTest() {
+        for (int i = 0; i < 10; i++) {
+            testMinMaxHeap(2000);
+            testDoubleMinMaxHeap(2000);
+            testMakeMinMaxHeap(1000);
+        }
+        System.out.println("DONE. All tests successful.");
+    }
+
+    // Interleave adds, pop-mins, and pop-maxes, checking both ends against a sorted list after every step.
+    private static void testMinMaxHeap(int numOperations) {
+        MinMaxHeap<Integer> heap = new MinMaxHeap<Integer>();
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < numOperations; i++) {
+            double operation = Math.random();
+            if (!expected.isEmpty() && operation < 0.2) {
+                assertEqual(expected.remove(0), heap.popMin());
+            } else if (!expected.isEmpty() && operation < 0.4) {
+                assertEqual(expected.remove(expected.size() - 1), heap.popMax());
+            } else {
+                int item = (int) (Math.random() * 100);
+                heap.add(item);
+                expected.add(item);
+                Collections.sort(expected);
+            }
+            assertEqual(expected.size(), heap.size());
+            if (!expected.isEmpty()) {
+                assertEqual(expected.get(0), heap.peekMin());
+                assertEqual(expected.get(expected.size() - 1), heap.peekMax());
+            }
+        }
+    }
+
+    private static void testDoubleMinMaxHeap(int numOperations) {
+        DoubleMinMaxHeap<Integer> heap = new DoubleMinMaxHeap<Integer>(0);
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int i = 0; i < numOperations; i++) {
+            double operation = Math.random();
+            if (!expected.isEmpty() && operation < 0.2) {
+                assertEqual(expected.get(0), (int) heap.peekMinKey());
+                assertEqual(expected.remove(0), heap.popMin());
+            } else if (!expected.isEmpty() && operation < 0.4) {
+                assertEqual(expected.get(expected.size() - 1), (int) heap.peekMaxKey());
+                assertEqual(expected.remove(expected.size() - 1), heap.popMax());
+            } else {
+                int item = (int) (Math.random() * 100);
+                heap.add(item, item);
+                expected.add(item);
+                Collections.sort(expected);
+            }
+            assertEqual(expected.size(), heap.size());
+            if (!expected.isEmpty()) {
+                assertEqual(expected.get(0), heap.peekMin());
+                assertEqual(expected.get(expected.size() - 1), heap.peekMax());
+            }
+        }
+    }
+
+    private static void testMakeMinMaxHeap(int size) {
+        List<Integer> items = new ArrayList<Integer>();
+        double[] keys = new double[size];
+        Integer[] values = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            int item = (int) (Math.random() * 1000);
+            items.add(item);
+            keys[i] = item;
+            values[i] = item;
+        }
+        MinMaxHeap<Integer> heap = new MinMaxHeap<Integer>(items);
+        DoubleMinMaxHeap<Integer> doubleHeap = new DoubleMinMaxHeap<Integer>(keys, values, size);
+        Collections.sort(items);
+        for (int i = 0; i < size / 2; i++) {
+            assertEqual(items.get(i), heap.popMin());
+            assertEqual(items.get(size - 1 - i), heap.popMax());
+            assertEqual(items.get(i), doubleHeap.popMin());
+            assertEqual(items.get(size - 1 - i), doubleHeap.popMax());
+        }
+    }
+
+    private static void assertEqual(int expected, int actual) {
+        if (expected != actual) {
+            throw new RuntimeException("Expected " + expected + ", but got " + actual);
+        }
+    }
+}
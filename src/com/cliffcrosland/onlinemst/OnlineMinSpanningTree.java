@@ -0,0 +1,372 @@
+package com.cliffcrosland.onlinemst;
+
+import com.cliffcrosland.graph.GraphEdge;
+import com.cliffcrosland.graph.GraphNode;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * A min spanning tree (or forest) that stays correct as edges are added, one at a time, without ever looking at the
+ * edges again.
+ *
+ * When a new edge (u, v) arrives, there are two cases:
+ * - u and v are in different trees of the forest. Then the new edge joins them, and it belongs in the tree.
+ * - u and v are already connected. Then the new edge closes exactly one cycle: itself plus the tree path from u to v.
+ *   The heaviest edge on a cycle never belongs in a min spanning tree, so if the new edge is lighter than the heaviest
+ *   edge on that path, it takes that edge's place. Otherwise the new edge is the heaviest on the cycle, and we drop it.
+ * Either way, only the current tree edges matter for the future, so we only ever store V - 1 edges, however many have
+ * streamed by.
+ *
+ * The work is in finding the heaviest edge on the tree path from u to v while the tree keeps changing shape. For that
+ * we use a link-cut tree (Sleator and Tarjan), which represents the forest as a set of paths, each kept in a splay
+ * tree, and supports all of these in O(log n) amortized time:
+ * - link(a, b): add an edge between two trees.
+ * - cut(a, b): remove a tree edge.
+ * - findRoot(a): which tree `a` is in.
+ * - pathMax(a, b): the heaviest thing on the path from a to b.
+ *
+ * Link-cut trees keep values on nodes, not edges, so each tree edge gets a node of its own in the link-cut tree,
+ * spliced in between its two endpoints, and graph nodes get a weight of negative infinity. Then the heaviest node on a
+ * path is its heaviest edge. The tree never loses an edge without gaining one, so an edge that replaces another simply
+ * takes over its node, and the link-cut tree never has more than 2V - 1 nodes.
+ *
+ * Every edge added gets an id: 0 for the first edge added, 1 for the next, and so on.
+ */
+public class OnlineMinSpanningTree {
+    private final int numNodes;
+    // The total weight is kept with compensated summation: `totalWeightError` collects the low-order bits that each
+    // addition to `totalWeight` rounds away. See `addToTotalWeight`.
+    private double totalWeight;
+    private double totalWeightError;
+    private int numTreeEdges;
+    private int nextEdgeId;
+
+    // The link-cut tree. Nodes [0, numNodes) are graph nodes, and nodes [numNodes, 2 * numNodes - 1) are slots for
+    // tree edges. `parents` holds both splay tree parents and path-parent pointers: a node is the root of its splay
+    // tree if its parent does not have it as a child.
+    private final int[] lefts;
+    private final int[] rights;
+    private final int[] parents;
+    private final boolean[] flipped; // whether the node's splay subtree is waiting to be reversed
+    private final double[] weights;
+    private final int[] maxNodes; // the heaviest node in the node's splay subtree
+
+    // Which edge is in each edge slot. Slots [0, numTreeEdges) are in use.
+    private final int[] edgeIds;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final GraphEdge[] graphEdges;
+
+    // The edge that left the tree in the last call to `add`, if any.
+    private int droppedEdgeId;
+    private GraphEdge droppedGraphEdge;
+
+    private Map<GraphNode, Integer> graphNodeIds;
+
+    // Scratch space for `splay`: the path from a node up to the root of its splay tree.
+    private int[] ancestors = new int[16];
+
+    // An empty forest on nodes [0, numNodes).
+    public OnlineMinSpanningTree(int numNodes) {
+        if (numNodes < 0) {
+            throw new IllegalArgumentException("Number of nodes must be non-negative.");
+        }
+        this.numNodes = numNodes;
+        int size = Math.max(2 * numNodes - 1, 0);
+        lefts = new int[size];
+        rights = new int[size];
+        parents = new int[size];
+        flipped = new boolean[size];
+        weights = new double[size];
+        maxNodes = new int[size];
+        for (int node = 0; node < size; node++) {
+            lefts[node] = -1;
+            rights[node] = -1;
+            parents[node] = -1;
+            weights[node] = Double.NEGATIVE_INFINITY;
+            maxNodes[node] = node;
+        }
+        int numSlots = Math.max(numNodes - 1, 0);
+        edgeIds = new int[numSlots];
+        edgeFrom = new int[numSlots];
+        edgeTo = new int[numSlots];
+        graphEdges = new GraphEdge[numSlots];
+    }
+
+    // An empty forest on `nodes`, to be used with `addGraphEdge`.
+    public OnlineMinSpanningTree(Set<GraphNode> nodes) {
+        this(nodes.size());
+        graphNodeIds = new HashMap<GraphNode, Integer>(nodes.size() * 2);
+        for (GraphNode node : nodes) {
+            graphNodeIds.put(node, graphNodeIds.size());
+        }
+    }
+
+    // O(log V) amortized - Add the edge (from, to) and update the min spanning tree. Returns the id of the edge that
+    // is no longer in the tree because of this: the new edge's own id if it does not belong in the tree, the id of
+    // the tree edge it replaced, or -1 if the tree only grew. When weights tie, the edge already in the tree stays.
+    public int addEdge(int from, int to, double weight) {
+        add(from, to, weight, null);
+        return droppedEdgeId;
+    }
+
+    // Same as above, for an edge between nodes of the set this tree was built with. Returns the edge that is no
+    // longer in the tree because of this, or null if the tree only grew.
+    public GraphEdge addGraphEdge(GraphEdge edge) {
+        if (graphNodeIds == null) {
+            throw new IllegalStateException("Tree was not built from a set of graph nodes.");
+        }
+        Integer from = graphNodeIds.get(edge.from);
+        Integer to = graphNodeIds.get(edge.to);
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Edge has an endpoint that is not in the graph.");
+        }
+        add(from, to, edge.value, edge);
+        return droppedGraphEdge;
+    }
+
+    // O(1) - The sum of the weights of the edges in the min spanning tree.
+    public double getTotalWeight() {
+        return totalWeight + totalWeightError;
+    }
+
+    // O(1) - The number of edges in the min spanning tree. V - 1 once the graph is connected.
+    public int getNumTreeEdges() {
+        return numTreeEdges;
+    }
+
+    // O(log V) amortized - Whether `a` and `b` are joined by the edges added so far.
+    public boolean isConnected(int a, int b) {
+        assertValidNodeId(a);
+        assertValidNodeId(b);
+        return a == b || findRoot(a) == findRoot(b);
+    }
+
+    // O(V) - The ids of the edges in the min spanning tree, in no particular order.
+    public int[] getTreeEdges() {
+        int[] ret = new int[numTreeEdges];
+        System.arraycopy(edgeIds, 0, ret, 0, numTreeEdges);
+        return ret;
+    }
+
+    // O(V) - The edges in the min spanning tree, when edges are added with `addGraphEdge`.
+    public Set<GraphEdge> getMinSpanningTree() {
+        Set<GraphEdge> ret = new HashSet<GraphEdge>();
+        for (int slot = 0; slot < numTreeEdges; slot++) {
+            if (graphEdges[slot] != null) {
+                ret.add(graphEdges[slot]);
+            }
+        }
+        return ret;
+    }
+
+    // === Helpers ===
+
+    // Sets `droppedEdgeId` and `droppedGraphEdge` to the edge that left the tree, if any.
+    private void add(int from, int to, double weight, GraphEdge graphEdge) {
+        assertValidNodeId(from);
+        assertValidNodeId(to);
+        if (Double.isNaN(weight)) {
+            throw new IllegalArgumentException("Edge weight must be a number.");
+        }
+        int id = nextEdgeId++;
+        droppedEdgeId = -1;
+        droppedGraphEdge = null;
+        int slot;
+        if (from == to) {
+            droppedEdgeId = id;
+            droppedGraphEdge = graphEdge;
+            return;
+        } else if (findRoot(from) == findRoot(to)) {
+            // The new edge closes a cycle. Find the heaviest edge on the tree path it spans.
+            int heaviest = pathMax(from, to);
+            if (weights[heaviest] <= weight) {
+                droppedEdgeId = id;
+                droppedGraphEdge = graphEdge;
+                return;
+            }
+            slot = heaviest - numNodes;
+            droppedEdgeId = edgeIds[slot];
+            droppedGraphEdge = graphEdges[slot];
+            cut(edgeFrom[slot], heaviest);
+            cut(heaviest, edgeTo[slot]);
+            addToTotalWeight(-weights[heaviest]);
+        } else {
+            slot = numTreeEdges++;
+        }
+        int edgeNode = numNodes + slot;
+        edgeIds[slot] = id;
+        edgeFrom[slot] = from;
+        edgeTo[slot] = to;
+        graphEdges[slot] = graphEdge;
+        weights[edgeNode] = weight;
+        maxNodes[edgeNode] = edgeNode;
+        flipped[edgeNode] = false;
+        link(from, edgeNode);
+        link(edgeNode, to);
+        addToTotalWeight(weight);
+    }
+
+    // Kahan-Babuska (Neumaier) summation. A plain running sum picks up a rounding error on every add and every
+    // replacement, and on a stream that never ends, those errors never stop adding up: once the total has been large,
+    // its rounding errors can dwarf a total that has since shrunk. Here the exact error of each addition is recovered
+    // and kept aside, so in practice the total stays within a few ulps of the true sum however many edges have streamed by.
+    private void addToTotalWeight(double weight) {
+        double sum = totalWeight + weight;
+        if (Double.isInfinite(sum)) {
+            totalWeightError = 0.0; // the error terms would be NaN, and an infinite total has no error to track
+        } else if (Math.abs(totalWeight) >= Math.abs(weight)) {
+            totalWeightError += (totalWeight - sum) + weight;
+        } else {
+            totalWeightError += (weight - sum) + totalWeight;
+        }
+        totalWeight = sum;
+    }
+
+    private void assertValidNodeId(int node) {
+        if (node < 0 || node >= numNodes) {
+            throw new IllegalArgumentException("Node id " + node + " is not in the range [0, " + numNodes + ").");
+        }
+    }
+
+    // === Link-cut tree ===
+
+    // Whether `node` is the root of its splay tree, i.e. the shallowest node of its preferred path.
+    private boolean isSplayRoot(int node) {
+        int parent = parents[node];
+        return parent == -1 || (lefts[parent] != node && rights[parent] != node);
+    }
+
+    // Apply a pending reversal to `node`'s children.
+    private void push(int node) {
+        if (!flipped[node]) return;
+        int left = lefts[node];
+        lefts[node] = rights[node];
+        rights[node] = left;
+        if (lefts[node] != -1) flipped[lefts[node]] = !flipped[lefts[node]];
+        if (rights[node] != -1) flipped[rights[node]] = !flipped[rights[node]];
+        flipped[node] = false;
+    }
+
+    private void update(int node) {
+        int max = node;
+        int left = lefts[node];
+        int right = rights[node];
+        if (left != -1 && weights[maxNodes[left]] > weights[max]) max = maxNodes[left];
+        if (right != -1 && weights[maxNodes[right]] > weights[max]) max = maxNodes[right];
+        maxNodes[node] = max;
+    }
+
+    private void rotate(int node) {
+        int parent = parents[node];
+        int grandparent = parents[parent];
+        if (!isSplayRoot(parent)) {
+            if (lefts[grandparent] == parent) {
+                lefts[grandparent] = node;
+            } else {
+                rights[grandparent] = node;
+            }
+        }
+        parents[node] = grandparent;
+        if (lefts[parent] == node) {
+            lefts[parent] = rights[node];
+            if (rights[node] != -1) parents[rights[node]] = parent;
+            rights[node] = parent;
+        } else {
+            rights[parent] = lefts[node];
+            if (lefts[node] != -1) parents[lefts[node]] = parent;
+            lefts[node] = parent;
+        }
+        parents[parent] = node;
+        update(parent);
+        update(node);
+    }
+
+    // Move `node` to the root of its splay tree.
+    private void splay(int node) {
+        // Pending reversals must be applied top-down before rotating, so push from the splay root down to `node`.
+        int depth = 0;
+        for (int ancestor = node; ; ancestor = parents[ancestor]) {
+            pushAncestor(depth++, ancestor);
+            if (isSplayRoot(ancestor)) break;
+        }
+        while (depth > 0) {
+            push(ancestors[--depth]);
+        }
+        while (!isSplayRoot(node)) {
+            int parent = parents[node];
+            if (!isSplayRoot(parent)) {
+                int grandparent = parents[parent];
+                boolean zigZig = (lefts[grandparent] == parent) == (lefts[parent] == node);
+                rotate(zigZig ? parent : node);
+            }
+            rotate(node);
+        }
+    }
+
+    private void pushAncestor(int i, int node) {
+        if (i == ancestors.length) {
+            int[] bigger = new int[ancestors.length * 2];
+            System.arraycopy(ancestors, 0, bigger, 0, ancestors.length);
+            ancestors = bigger;
+        }
+        ancestors[i] = node;
+    }
+
+    // Make the path from `node` up to the root of its tree a single preferred path, with `node` at the bottom, and
+    // splay `node` to the root of that path's splay tree.
+    private void access(int node) {
+        int last = -1;
+        for (int current = node; current != -1; current = parents[current]) {
+            splay(current);
+            rights[current] = last;
+            update(current);
+            last = current;
+        }
+        splay(node);
+    }
+
+    // Make `node` the root of its tree, by reversing the path from it to the old root.
+    private void makeRoot(int node) {
+        access(node);
+        flipped[node] = !flipped[node];
+    }
+
+    private int findRoot(int node) {
+        access(node);
+        int root = node;
+        push(root);
+        while (lefts[root] != -1) {
+            root = lefts[root];
+            push(root);
+        }
+        splay(root);
+        return root;
+    }
+
+    // `a` and `b` must be in different trees.
+    private void link(int a, int b) {
+        makeRoot(a);
+        parents[a] = b;
+    }
+
+    // There must be a tree edge between `a` and `b`.
+    private void cut(int a, int b) {
+        makeRoot(a);
+        access(b);
+        // Now the path is just a -> b, so `a` is `b`'s left child in the splay tree.
+        lefts[b] = -1;
+        parents[a] = -1;
+        update(b);
+    }
+
+    // The heaviest node on the path between `a` and `b`, which must be connected.
+    private int pathMax(int a, int b) {
+        makeRoot(a);
+        access(b);
+        return maxNodes[b];
+    }
+}
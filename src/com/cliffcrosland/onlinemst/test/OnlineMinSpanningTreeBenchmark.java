@@ -0,0 +1,41 @@
+package com.cliffcrosland.onlinemst.test;
+
+import com.cliffcrosland.onlinemst.OnlineMinSpanningTree;
+
+import java.util.Random;
+
+/*
+ * Times streaming random edges into an `OnlineMinSpanningTree`. Run with the number of nodes and the number of edges
+ * as the arguments (default 100 thousand and 1 million). Weights are uniform in [0, 1). With the defaults, most edges
+ * land in an already connected tree, so they close a cycle and cost a path max query, and some replace a tree edge.
+ *
+ * The stream is run a few times and the best time is reported, so that JIT warmup does not count.
+ */
+public class OnlineMinSpanningTreeBenchmark {
+    private static final int NUM_TRIALS = 3;
+
+    public static void main(String[] args) {
+        int numNodes = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int numEdges = args.length > 1 ? Integer.parseInt(args[1]) : 1000000;
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        double[] weights = new double[numEdges];
+        Random random = new Random(42);
+        for (int i = 0; i < numEdges; i++) {
+            from[i] = random.nextInt(numNodes);
+            to[i] = random.nextInt(numNodes);
+            weights[i] = random.nextDouble();
+        }
+        long best = Long.MAX_VALUE;
+        for (int trial = 0; trial < NUM_TRIALS; trial++) {
+            long start = System.nanoTime();
+            OnlineMinSpanningTree tree = new OnlineMinSpanningTree(numNodes);
+            for (int i = 0; i < numEdges; i++) {
+                tree.addEdge(from[i], to[i], weights[i]);
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.println("Online MST: " + numEdges + " insertions on " + numNodes + " nodes. Best of " +
+                NUM_TRIALS + ": " + best / 1000000 + " ms");
+    }
+}
@@ -0,0 +1,158 @@
+package com.cliffcrosland.onlinemst.test;
+
+import com.cliffcrosland.graph.Graph;
+import com.cliffcrosland.graph.GraphEdge;
+import com.cliffcrosland.graph.GraphNode;
+import com.cliffcrosland.kruskal.KruskalMinSpanningTree;
+import com.cliffcrosland.onlinemst.OnlineMinSpanningTree;
+import com.cliffcrosland.quicksort.Quicksort;
+import com.cliffcrosland.unionfind.UnionFind;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class OnlineMinSpanningTreeTests {
+
+    public static void stressTest() {
+        for (int i = 0; i < 10; i++) {
+            testRandomStream(50, 400, false);
+            testRandomStream(50, 400, true);
+        }
+        testGraphEdges();
+        testShrinkingWeights(100, 200000);
+        testLongStream(10000, 100000);
+        System.out.println("DONE. All tests successful.");
+    }
+
+    // After every edge, the online tree should match a Kruskal's run over every edge so far.
+    private static void testRandomStream(int numNodes, int numEdges, boolean integerWeights) {
+        OnlineMinSpanningTree tree = new OnlineMinSpanningTree(numNodes);
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        double[] weights = new double[numEdges];
+        Set<Integer> treeEdges = new HashSet<Integer>();
+        for (int i = 0; i < numEdges; i++) {
+            from[i] = (int) (Math.random() * numNodes);
+            to[i] = (int) (Math.random() * numNodes);
+            weights[i] = integerWeights ? (int) (Math.random() * 5) : Math.random() * 100;
+            int dropped = tree.addEdge(from[i], to[i], weights[i]);
+            treeEdges.add(i);
+            if (dropped != -1 && !treeEdges.remove(dropped)) {
+                throw new RuntimeException("Dropped edge " + dropped + " was not in the tree.");
+            }
+
+            Set<Integer> actual = new HashSet<Integer>();
+            for (int edge : tree.getTreeEdges()) {
+                actual.add(edge);
+            }
+            if (!actual.equals(treeEdges)) {
+                throw new RuntimeException("Tree edges " + actual + " do not match expected tree edges " + treeEdges);
+            }
+            double expectedCost = findKruskalCost(numNodes, from, to, weights, i + 1);
+            double cost = 0.0;
+            UnionFind sets = new UnionFind(numNodes);
+            for (int edge : actual) {
+                if (!sets.union(from[edge], to[edge])) {
+                    throw new RuntimeException("Tree edges make a cycle.");
+                }
+                cost += weights[edge];
+            }
+            if (Math.abs(cost - expectedCost) > 1e-6 || Math.abs(tree.getTotalWeight() - expectedCost) > 1e-6) {
+                throw new RuntimeException("Expected MST cost " + expectedCost + ", but got " + cost + " and " +
+                        tree.getTotalWeight());
+            }
+            if (tree.getNumTreeEdges() != numNodes - sets.getNumSets()) {
+                throw new RuntimeException("Wrong number of tree edges: " + tree.getNumTreeEdges());
+            }
+            int a = (int) (Math.random() * numNodes);
+            int b = (int) (Math.random() * numNodes);
+            if (tree.isConnected(a, b) != sets.isConnected(a, b)) {
+                throw new RuntimeException("Wrong connectivity between " + a + " and " + b);
+            }
+        }
+    }
+
+    private static void testGraphEdges() {
+        List<GraphNode> nodes = new ArrayList<GraphNode>();
+        for (int i = 0; i < 100; i++) {
+            nodes.add(new GraphNode("" + i));
+        }
+        OnlineMinSpanningTree tree = new OnlineMinSpanningTree(new HashSet<GraphNode>(nodes));
+        Set<GraphEdge> edges = new HashSet<GraphEdge>();
+        for (int i = 0; i < 1000; i++) {
+            GraphNode from = nodes.get((int) (Math.random() * nodes.size()));
+            GraphNode to = nodes.get((int) (Math.random() * nodes.size()));
+            GraphEdge edge = new GraphEdge(from, to, Math.random() * 100);
+            edges.add(edge);
+            tree.addGraphEdge(edge);
+        }
+        Set<GraphEdge> expected = KruskalMinSpanningTree.findMinSpanningTree(
+                new Graph(new HashSet<GraphNode>(nodes), edges));
+        if (!expected.equals(tree.getMinSpanningTree())) {
+            throw new RuntimeException("Online MST does not match Kruskal's MST.");
+        }
+    }
+
+    // Edge weights shrink from 1e8 to 1e-8 over the stream, so nearly every edge replaces a much heavier one. A plain
+    // running total keeps the rounding errors from its large early values, which end up far bigger than the final
+    // total. Check the total against the tree's weights summed from scratch, smallest first.
+    private static void testShrinkingWeights(int numNodes, int numEdges) {
+        OnlineMinSpanningTree tree = new OnlineMinSpanningTree(numNodes);
+        double[] weights = new double[numEdges];
+        for (int i = 0; i < numEdges; i++) {
+            weights[i] = Math.random() * Math.pow(10, 8 - 16.0 * i / numEdges);
+            tree.addEdge((int) (Math.random() * numNodes), (int) (Math.random() * numNodes), weights[i]);
+        }
+        int[] treeEdges = tree.getTreeEdges();
+        double[] treeWeights = new double[treeEdges.length];
+        for (int i = 0; i < treeEdges.length; i++) {
+            treeWeights[i] = weights[treeEdges[i]];
+        }
+        Arrays.sort(treeWeights);
+        double expectedCost = 0.0;
+        for (double weight : treeWeights) {
+            expectedCost += weight;
+        }
+        if (Math.abs(tree.getTotalWeight() - expectedCost) > 1e-9 * expectedCost) {
+            throw new RuntimeException("Total weight " + tree.getTotalWeight() + " drifted from the tree's cost " +
+                    expectedCost);
+        }
+    }
+
+    // Many more edges than nodes, so that most edges close a cycle, and compare the final cost against Kruskal's.
+    private static void testLongStream(int numNodes, int numEdges) {
+        int[] from = new int[numEdges];
+        int[] to = new int[numEdges];
+        double[] weights = new double[numEdges];
+        OnlineMinSpanningTree tree = new OnlineMinSpanningTree(numNodes);
+        for (int i = 0; i < numEdges; i++) {
+            from[i] = (int) (Math.random() * numNodes);
+            to[i] = (int) (Math.random() * numNodes);
+            weights[i] = Math.random();
+            tree.addEdge(from[i], to[i], weights[i]);
+        }
+        double expectedCost = findKruskalCost(numNodes, from, to, weights, numEdges);
+        if (Math.abs(tree.getTotalWeight() - expectedCost) > 1e-6) {
+            throw new RuntimeException("Expected MST cost " + expectedCost + ", but got " + tree.getTotalWeight());
+        }
+    }
+
+    private static double findKruskalCost(int numNodes, int[] from, int[] to, double[] weights, int numEdges) {
+        int[] sortedEdges = new int[numEdges];
+        for (int i = 0; i < numEdges; i++) {
+            sortedEdges[i] = i;
+        }
+        Quicksort.sortIndicesByKey(sortedEdges, Arrays.copyOf(weights, numEdges));
+        UnionFind sets = new UnionFind(numNodes);
+        double cost = 0.0;
+        for (int edge : sortedEdges) {
+            if (sets.union(from[edge], to[edge])) {
+                cost += weights[edge];
+            }
+        }
+        return cost;
+    }
+}
@@ -1,11 +1,16 @@
 package com.cliffcrosland.prim;
 
+import com.cliffcrosland.graph.CompactGraph;
 import com.cliffcrosland.graph.Graph;
 import com.cliffcrosland.graph.GraphEdge;
 import com.cliffcrosland.graph.GraphNode;
-import com.cliffcrosland.heap.MinHeap;
+import com.cliffcrosland.heap.DoubleMinHeap;
+import com.cliffcrosland.heap.IndexedMinHeap;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public class PrimMinSpanningTree {
@@ -25,10 +30,14 @@ public class PrimMinSpanningTree {
     //
     // In summary, we expect to do O(log E) operations E times, or O(E log E) = O(E log V^2) = O(E * 2 log V) =
     // O(E log V).
+    //
+    // The heap is keyed by edge weight, and each entry's value is the edge's index in `pushedEdges`, so pushing an edge
+    // allocates nothing and the heap compares doubles instead of calling `compareTo` on wrapper objects.
     public static Set<GraphEdge> findMinSpanningTree(Graph graph) {
         Set<GraphEdge> ret = new HashSet<>();
         Set<GraphNode> spanned = new HashSet<>();
-        MinHeap<CGraphEdge> edgeHeap = new MinHeap<>();
+        DoubleMinHeap edgeHeap = new DoubleMinHeap();
+        List<GraphEdge> pushedEdges = new ArrayList<>();
         if (graph.nodes.size() == 0) {
             throw new IllegalArgumentException("Graph cannot be empty.");
         }
@@ -37,9 +46,10 @@ public class PrimMinSpanningTree {
         while (spanned.size() < graph.nodes.size()) {
             for (GraphEdge edge : newNode.edges) {
                 if (spanned.contains(edge.from) && spanned.contains(edge.to)) continue;
-                edgeHeap.add(new CGraphEdge(edge));
+                edgeHeap.add(edge.value, pushedEdges.size());
+                pushedEdges.add(edge);
             }
-            GraphEdge min = getMinFrontierEdge(edgeHeap, spanned);
+            GraphEdge min = getMinFrontierEdge(edgeHeap, pushedEdges, spanned);
             ret.add(min);
             newNode = spanned.contains(min.from)
                     ? min.to
@@ -49,42 +59,67 @@ public class PrimMinSpanningTree {
         return ret;
     }
 
-    private static GraphEdge getMinFrontierEdge(MinHeap<CGraphEdge> edgeHeap, Set<GraphNode> spanned) {
-        GraphEdge min = edgeHeap.popMin().edge();
-        while (!onFrontier(min, spanned)) {
-            min = edgeHeap.popMin().edge();
-        }
-        return min;
-    }
-
-    private static boolean onFrontier(GraphEdge edge, Set<GraphNode> spanned) {
-        return !(spanned.contains(edge.from) && spanned.contains(edge.to));
+    // Same result as `findMinSpanningTree`, but using the eager version of Prim's described below. The lazy version
+    // lets its heap grow to O(E) entries, and spends a hash lookup in `spanned` on every edge it looks at. Here we
+    // number the nodes once, in O(V + E), and from then on the heap holds one entry per node and every lookup is an
+    // array index. On dense graphs, where E is close to V^2, the heap stays V entries instead of E, and nothing is
+    // allocated per edge after the numbering.
+    public static Set<GraphEdge> findMinSpanningTreeEager(Graph graph) {
+        CompactGraph compactGraph = CompactGraph.fromGraph(graph);
+        return new HashSet<>(compactGraph.toGraphEdges(findMinSpanningTree(compactGraph)));
     }
 
-    private static class CGraphEdge implements Comparable {
-        private GraphEdge e;
-
-        public CGraphEdge(GraphEdge e) {
-            this.e = e;
+    // Prim's algorithm on the compact (CSR) form of a graph. Returns the ids of the edges in the min spanning tree.
+    //
+    // Since nodes are dense ids here, we can use the "eager" version of Prim's: instead of a heap of frontier edges,
+    // keep a heap of frontier nodes, keyed by the cheapest edge from the tree to that node. When a newly spanned node
+    // offers a cheaper edge to a frontier node, we lower that node's key in place. The heap never holds more than V
+    // entries and never holds a stale edge, so there is nothing to skip over when popping. Runtime is O(E log V).
+    public static int[] findMinSpanningTree(CompactGraph graph) {
+        if (graph.numNodes == 0) {
+            throw new IllegalArgumentException("Graph cannot be empty.");
         }
-
-        public GraphEdge edge() {
-            return e;
+        int[] ret = new int[graph.numNodes - 1];
+        int numTreeEdges = 0;
+        boolean[] spanned = new boolean[graph.numNodes];
+        int[] cheapestEdges = new int[graph.numNodes];
+        Arrays.fill(cheapestEdges, -1);
+        IndexedMinHeap nodeHeap = new IndexedMinHeap(graph.numNodes);
+        int newNode = 0;
+        spanned[newNode] = true;
+        while (numTreeEdges < ret.length) {
+            for (int edge = graph.offsets[newNode]; edge < graph.offsets[newNode + 1]; edge++) {
+                int neighbor = graph.targets[edge];
+                if (spanned[neighbor]) continue;
+                double value = graph.weights[edge];
+                if (!nodeHeap.contains(neighbor)) {
+                    nodeHeap.add(neighbor, value);
+                    cheapestEdges[neighbor] = edge;
+                } else if (value < nodeHeap.getKey(neighbor)) {
+                    nodeHeap.decreaseKey(neighbor, value);
+                    cheapestEdges[neighbor] = edge;
+                }
+            }
+            if (nodeHeap.isEmpty()) {
+                throw new IllegalArgumentException("Graph must be connected.");
+            }
+            newNode = nodeHeap.popMin();
+            spanned[newNode] = true;
+            ret[numTreeEdges++] = cheapestEdges[newNode];
         }
+        return ret;
+    }
 
-        public double value() {
-            return e.value;
+    private static GraphEdge getMinFrontierEdge(DoubleMinHeap edgeHeap, List<GraphEdge> pushedEdges,
+                                                Set<GraphNode> spanned) {
+        GraphEdge min = pushedEdges.get((int) edgeHeap.popMin());
+        while (!onFrontier(min, spanned)) {
+            min = pushedEdges.get((int) edgeHeap.popMin());
         }
+        return min;
+    }
 
-        @Override
-        public int compareTo(Object o) {
-            CGraphEdge other = (CGraphEdge) o;
-            if (value() < other.value()) {
-                return -1;
-            } else if (value() > other.value()) {
-                return 1;
-            }
-            return 0;
-        }
+    private static boolean onFrontier(GraphEdge edge, Set<GraphNode> spanned) {
+        return !(spanned.contains(edge.from) && spanned.contains(edge.to));
     }
 }
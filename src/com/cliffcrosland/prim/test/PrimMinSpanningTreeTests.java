@@ -1,10 +1,12 @@
 package com.cliffcrosland.prim.test;
 
+import com.cliffcrosland.graph.CompactGraph;
 import com.cliffcrosland.graph.Graph;
 import com.cliffcrosland.graph.GraphEdge;
 import com.cliffcrosland.graph.test.GraphTestUtils;
 import com.cliffcrosland.prim.PrimMinSpanningTree;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -18,6 +20,7 @@ public class PrimMinSpanningTreeTests {
         System.out.println("Found " + testCases.size() + " test cases. Running...");
         for (GraphTestUtils.GraphTestCase testCase : testCases) {
             Set<GraphEdge> minSpanningTree = PrimMinSpanningTree.findMinSpanningTree(testCase.graph);
+            assertCompactMinSpanningTreeHasSameCost(testCase.graph, minSpanningTree);
             if (GraphTestUtils.treeCost(minSpanningTree) - GraphTestUtils.treeCost(testCase.solution) > 1e-4) {
                 println("Test case failed!");
                 println("Graph:");
@@ -51,11 +54,25 @@ public class PrimMinSpanningTreeTests {
         printTree(bruteForceMinSpanningTree);
         println("");
 
+        assertCompactMinSpanningTreeHasSameCost(graph, minSpanningTree);
         if (GraphTestUtils.treeCost(minSpanningTree) - GraphTestUtils.treeCost(bruteForceMinSpanningTree) > 1e-4) {
             throw new RuntimeException("Prim min spanning tree cost is greater than brute force spanning tree cost");
         }
     }
 
+    private static void assertCompactMinSpanningTreeHasSameCost(Graph graph, Set<GraphEdge> minSpanningTree) {
+        CompactGraph compactGraph = CompactGraph.fromGraph(graph);
+        Set<GraphEdge> compactMinSpanningTree = new HashSet<>(
+                compactGraph.toGraphEdges(PrimMinSpanningTree.findMinSpanningTree(compactGraph)));
+        if (Math.abs(GraphTestUtils.treeCost(compactMinSpanningTree) - GraphTestUtils.treeCost(minSpanningTree)) > 1e-4) {
+            throw new RuntimeException("Compact graph Prim min spanning tree cost differs from Prim min spanning tree cost");
+        }
+        Set<GraphEdge> eagerMinSpanningTree = PrimMinSpanningTree.findMinSpanningTreeEager(graph);
+        if (Math.abs(GraphTestUtils.treeCost(eagerMinSpanningTree) - GraphTestUtils.treeCost(minSpanningTree)) > 1e-4) {
+            throw new RuntimeException("Eager Prim min spanning tree cost differs from Prim min spanning tree cost");
+        }
+    }
+
     public static void println(Object o) {
         if (!DEBUG) return;
         System.out.println(o);
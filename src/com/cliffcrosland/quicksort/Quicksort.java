@@ -26,6 +26,47 @@ public class Quicksort {
         quicksort(arr, boundaryIndex + 1, end);
     }
 
+    // Sort `indices` so that their keys, keys[indices[i]], are in ascending order. This lets us sort things like the
+    // edges of a graph by weight without boxing each weight or allocating a wrapper object per edge.
+    public static void sortIndicesByKey(int[] indices, double[] keys) {
+        sortIndicesByKey(indices, keys, 0, indices.length - 1);
+    }
+
+    // Sort the inclusive range [start, end] of `indices` by key. Same average/worst case as above.
+    //
+    // Unlike `quicksort` above, this partitions from both ends toward the middle, so elements equal to the pivot end
+    // up split evenly between the two sides. Graphs often have many edges of equal weight, and a one-sided partition
+    // would degrade to O(n^2) on them. We also recurse on the smaller side and loop on the larger one, so the stack
+    // depth stays O(log n).
+    public static void sortIndicesByKey(int[] indices, double[] keys, int start, int end) {
+        while (start < end) {
+            int randIndex = start + (int)(Math.random() * (end - start + 1));
+            double pivot = keys[indices[randIndex]];
+            int i = start;
+            int j = end;
+            while (i <= j) {
+                while (keys[indices[i]] < pivot) i++;
+                while (keys[indices[j]] > pivot) j--;
+                if (i <= j) {
+                    swap(indices, i++, j--);
+                }
+            }
+            if (j - start < end - i) {
+                sortIndicesByKey(indices, keys, start, j);
+                start = i;
+            } else {
+                sortIndicesByKey(indices, keys, i, end);
+                end = j;
+            }
+        }
+    }
+
+    private static void swap(int[] arr, int a, int b) {
+        int temp = arr[a];
+        arr[a] = arr[b];
+        arr[b] = temp;
+    }
+
     private static void swap(Comparable[] arr, int a, int b) {
         Comparable temp = arr[a];
         arr[a] = arr[b];
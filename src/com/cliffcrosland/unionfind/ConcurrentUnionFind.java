@@ -0,0 +1,92 @@
+package com.cliffcrosland.unionfind;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/*
+ * A union-find forest over the dense int ids [0, size) that many threads can query and merge at once, without locks.
+ *
+ * The sequential version links the root of lower rank under the root of higher rank, which means updating a parent
+ * and a rank together. Two threads could interleave those updates, so here roots are linked by index instead: the
+ * root with the larger id goes under the one with the smaller id. That makes a merge a single compare-and-set on one
+ * parent pointer. If the compare-and-set fails, another thread linked that root somewhere first, so we look up the
+ * roots again and retry. Parent pointers only ever move toward smaller ids, so the forest never has a cycle.
+ *
+ * Find shortens paths as it goes, like the sequential version, by swinging each node to its grandparent with a
+ * compare-and-set. A failed swing only means another thread changed that pointer first, and is simply skipped.
+ *
+ * Linking by index gives up the O(log n) height guarantee of union by rank, but with path halving the amortized cost
+ * of Find stays small in practice (and is O(log n) amortized in the worst case).
+ */
+public class ConcurrentUnionFind {
+    private final AtomicIntegerArray parents;
+    private final AtomicInteger numSets;
+
+    // O(n) - Every id starts in a set of its own.
+    public ConcurrentUnionFind(int size) {
+        parents = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            parents.set(i, i);
+        }
+        numSets = new AtomicInteger(size);
+    }
+
+    // O(1)
+    public int size() {
+        return parents.length();
+    }
+
+    // O(1) - The number of disjoint sets. Exact once no unions are in progress.
+    public int getNumSets() {
+        return numSets.get();
+    }
+
+    // The root of the set containing `id` at some moment during the call. If other threads are merging sets, it may no
+    // longer be a root by the time the caller looks at it.
+    public int find(int id) {
+        assertValidId(id);
+        while (true) {
+            int parent = parents.get(id);
+            if (parent == id) return id;
+            int grandparent = parents.get(parent);
+            if (parent != grandparent) {
+                parents.compareAndSet(id, parent, grandparent);
+            }
+            id = grandparent;
+        }
+    }
+
+    // Merge the sets containing `a` and `b`. Returns false if they were already the same set. If several threads
+    // merge the same two sets at once, exactly one of them gets true.
+    public boolean union(int a, int b) {
+        while (true) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) return false;
+            int low = Math.min(rootA, rootB);
+            int high = Math.max(rootA, rootB);
+            if (parents.compareAndSet(high, high, low)) {
+                numSets.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    // Whether `a` and `b` are in the same set. Since sets only ever merge, a true answer stays true. A false answer
+    // was true at some moment during the call: we only give it once we have seen rootA still be a root after finding
+    // a different rootB.
+    public boolean isConnected(int a, int b) {
+        while (true) {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB) return true;
+            if (parents.get(rootA) == rootA) return false;
+        }
+    }
+
+    private void assertValidId(int id) {
+        if (id < 0 || id >= parents.length()) {
+            throw new IllegalArgumentException("Id " + id + " is not in the range [0, " + parents.length() + ").");
+        }
+    }
+}
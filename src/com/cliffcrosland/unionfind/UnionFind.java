@@ -0,0 +1,74 @@
+package com.cliffcrosland.unionfind;
+
+/*
+ * A lazy union-find forest (disjoint sets) over the dense int ids [0, size). See the long comment at the top of
+ * `KruskalMinSpanningTree` for how it works and why Find is O(log* n) amortized.
+ *
+ * The forest is two arrays indexed by id, a parent and a rank, so it costs 5 bytes per element and allocates nothing
+ * after construction. Not thread-safe; see `ConcurrentUnionFind` for a version that many threads can share.
+ */
+public class UnionFind {
+    private int[] parents;
+    private byte[] ranks; // ranks are at most log2(size), so they fit in a byte
+    private int numSets;
+
+    // O(n) - Every id starts in a set of its own.
+    public UnionFind(int size) {
+        parents = new int[size];
+        ranks = new byte[size];
+        for (int i = 0; i < size; i++) {
+            parents[i] = i;
+        }
+        numSets = size;
+    }
+
+    // O(1)
+    public int size() {
+        return parents.length;
+    }
+
+    // O(1) - The number of disjoint sets.
+    public int getNumSets() {
+        return numSets;
+    }
+
+    // O(log* n) amortized - The root of the set containing `id`. Walks up to the root, pointing every other node on the
+    // way at its grandparent ("path halving"). This shortens the path about as well as pointing every node at the root,
+    // but in a single pass and without recursion.
+    public int find(int id) {
+        assertValidId(id);
+        while (parents[id] != id) {
+            parents[id] = parents[parents[id]];
+            id = parents[id];
+        }
+        return id;
+    }
+
+    // O(log* n) amortized - Merge the sets containing `a` and `b`. Returns false if they were already the same set.
+    public boolean union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) return false;
+        if (ranks[rootA] < ranks[rootB]) {
+            parents[rootA] = rootB;
+        } else if (ranks[rootA] > ranks[rootB]) {
+            parents[rootB] = rootA;
+        } else {
+            parents[rootB] = rootA;
+            ranks[rootA]++;
+        }
+        numSets--;
+        return true;
+    }
+
+    // O(log* n) amortized
+    public boolean isConnected(int a, int b) {
+        return find(a) == find(b);
+    }
+
+    private void assertValidId(int id) {
+        if (id < 0 || id >= parents.length) {
+            throw new IllegalArgumentException("Id " + id + " is not in the range [0, " + parents.length + ").");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.cliffcrosland.unionfind.test;
+
+import com.cliffcrosland.unionfind.ConcurrentUnionFind;
+import com.cliffcrosland.unionfind.UnionFind;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class UnionFindTests {
+
+    public static void stressTest() {
+        for (int i = 0; i < 100; i++) {
+            testCorrectness(200, 150);
+        }
+        for (int i = 0; i < 10; i++) {
+            testConcurrentCorrectness(100000, 80000, 4);
+        }
+        System.out.println("DONE. All tests successful.");
+    }
+
+    // Compare against a naive forest where every id stores the label of its set, and merging relabels a whole set.
+    public static void testCorrectness(int size, int numUnions) {
+        UnionFind unionFind = new UnionFind(size);
+        int[] labels = new int[size];
+        for (int i = 0; i < size; i++) {
+            labels[i] = i;
+        }
+        int numSets = size;
+        for (int i = 0; i < numUnions; i++) {
+            int a = (int) (Math.random() * size);
+            int b = (int) (Math.random() * size);
+            boolean expected = labels[a] != labels[b];
+            if (expected) {
+                int oldLabel = labels[b];
+                for (int j = 0; j < size; j++) {
+                    if (labels[j] == oldLabel) labels[j] = labels[a];
+                }
+                numSets--;
+            }
+            if (unionFind.union(a, b) != expected) {
+                throw new RuntimeException("Union-find disagrees with naive labels about whether a union merged sets!");
+            }
+            int c = (int) (Math.random() * size);
+            int d = (int) (Math.random() * size);
+            if (unionFind.isConnected(c, d) != (labels[c] == labels[d])) {
+                throw new RuntimeException("Union-find disagrees with naive labels about connectivity!");
+            }
+        }
+        if (unionFind.getNumSets() != numSets) {
+            throw new RuntimeException("Union-find has " + unionFind.getNumSets() + " sets instead of " + numSets);
+        }
+    }
+
+    // Several threads merge random pairs at once. Afterward the sets must match a sequential union-find given the
+    // same pairs, and exactly as many unions must have reported a merge as there were merges.
+    public static void testConcurrentCorrectness(int size, int numUnions, int numThreads) {
+        final int[] as = new int[numUnions];
+        final int[] bs = new int[numUnions];
+        UnionFind expected = new UnionFind(size);
+        for (int i = 0; i < numUnions; i++) {
+            as[i] = (int) (Math.random() * size);
+            bs[i] = (int) (Math.random() * size);
+            expected.union(as[i], bs[i]);
+        }
+        final ConcurrentUnionFind unionFind = new ConcurrentUnionFind(size);
+        final int[] numMerges = new int[numThreads];
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < numThreads; t++) {
+            final int thread = t;
+            final int begin = (int) ((long) numUnions * t / numThreads);
+            final int end = (int) ((long) numUnions * (t + 1) / numThreads);
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = begin; i < end; i++) {
+                        if (unionFind.union(as[i], bs[i])) numMerges[thread]++;
+                        unionFind.isConnected(as[i], bs[(i + 1) % bs.length]);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+        int totalMerges = 0;
+        for (int merges : numMerges) {
+            totalMerges += merges;
+        }
+        if (totalMerges != size - expected.getNumSets() || unionFind.getNumSets() != expected.getNumSets()) {
+            throw new RuntimeException("Concurrent union-find merged " + totalMerges + " times, expected " +
+                    (size - expected.getNumSets()));
+        }
+        for (int i = 0; i < size; i++) {
+            int j = (int) (Math.random() * size);
+            if (unionFind.isConnected(i, j) != expected.isConnected(i, j)) {
+                throw new RuntimeException("Concurrent union-find disagrees with sequential union-find!");
+            }
+        }
+    }
+}